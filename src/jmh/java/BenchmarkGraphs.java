@@ -0,0 +1,42 @@
+package jmh.java;
+
+import main.java.Main;
+import main.java.generator.GraphGenerator;
+
+/** Graph shapes shared by the benchmarks, built with {@link GraphGenerator}. */
+public final class BenchmarkGraphs {
+    public enum Shape { TREE, RANDOM, GRID, COMPLETE, GEOMETRIC, POWER_LAW }
+
+    private BenchmarkGraphs() {
+    }
+
+    /**
+     * Builds a graph with about {@code vertices} nodes and {@code vertices * degree / 2} edges.
+     * TREE ignores the degree; GRID uses a square lattice; COMPLETE keeps the edge budget and
+     * shrinks the vertex count to match, so shapes are compared at a similar E.
+     */
+    public static Main.GraphInput create(Shape shape, int vertices, int degree, long seed) {
+        long edgeBudget = (long) vertices * degree / 2;
+        switch (shape) {
+            case TREE:
+                return generate(GraphGenerator.Topology.RANDOM, vertices, vertices - 1, seed);
+            case RANDOM:
+                return generate(GraphGenerator.Topology.RANDOM, vertices, Math.max(vertices - 1, edgeBudget), seed);
+            case GRID:
+                return generate(GraphGenerator.Topology.GRID, vertices, 0, seed);
+            case COMPLETE:
+                int n = (int) Math.max(2, Math.ceil(Math.sqrt(2.0 * edgeBudget)));
+                return generate(GraphGenerator.Topology.COMPLETE, n, 0, seed);
+            case GEOMETRIC:
+                return generate(GraphGenerator.Topology.GEOMETRIC, vertices, edgeBudget, seed);
+            case POWER_LAW:
+                return generate(GraphGenerator.Topology.POWER_LAW, vertices, edgeBudget, seed);
+            default:
+                throw new IllegalArgumentException("Unknown shape " + shape);
+        }
+    }
+
+    private static Main.GraphInput generate(GraphGenerator.Topology topology, int vertices, long edges, long seed) {
+        return new GraphGenerator(topology, vertices, edges, 20, seed).generate().toGraphInput(1);
+    }
+}
@@ -0,0 +1,82 @@
+package jmh.java;
+
+import main.java.Main;
+import main.java.model_classes.DisjointSet;
+import main.java.model_classes.EdgeSort;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every {@link DisjointSet} compression/union combination replaying Kruskal's find/union
+ * sequence (edges in weight order, stop at V-1 unions) on the benchmark graph shapes.
+ * One instance is reset per invocation, so the numbers exclude allocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DisjointSetBenchmark {
+    @Param({"RANDOM", "GRID"})
+    public BenchmarkGraphs.Shape shape;
+
+    @Param({"100000"})
+    public int vertices;
+
+    @Param({"8"})
+    public int degree;
+
+    @Param({"NONE", "FULL", "HALVING", "SPLITTING"})
+    public DisjointSet.Compression compression;
+
+    @Param({"RANK", "SIZE"})
+    public DisjointSet.UnionRule union;
+
+    private int n;
+    private int[] from;
+    private int[] to;
+    private DisjointSet sets;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Main.GraphInput input = BenchmarkGraphs.create(shape, vertices, degree, 42);
+        Map<String, Integer> ids = new HashMap<>();
+        for (String label : input.nodes) {
+            ids.put(label, ids.size());
+        }
+        n = ids.size();
+        int m = input.edges.size();
+        int[] weight = new int[m];
+        for (int i = 0; i < m; i++) {
+            weight[i] = input.edges.get(i).weight;
+        }
+        int[] order = EdgeSort.sortedOrder(weight, m);
+        from = new int[m];
+        to = new int[m];
+        for (int i = 0; i < m; i++) {
+            Main.EdgeInput e = input.edges.get(order[i]);
+            from[i] = ids.get(e.from);
+            to[i] = ids.get(e.to);
+        }
+        sets = new DisjointSet(n, compression, union);
+    }
+
+    @Benchmark
+    public int kruskalSequence() {
+        sets.reset(n);
+        int joined = 0;
+        for (int i = 0; i < from.length && joined < n - 1; i++) {
+            int ru = sets.find(from[i]);
+            int rv = sets.find(to[i]);
+            if (ru != rv) {
+                sets.linkRoots(ru, rv);
+                joined++;
+            }
+        }
+        return joined;
+    }
+}
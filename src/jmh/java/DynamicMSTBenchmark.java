@@ -0,0 +1,79 @@
+package jmh.java;
+
+import main.java.Main;
+import main.java.model_classes.CsrGraph;
+import main.java.model_classes.DynamicMST;
+import main.java.model_classes.Graph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Road closures and weight changes on a large synthetic graph through the public {@link Graph}
+ * API, so the edge lookup in front of each {@link DynamicMST} update is measured too, versus
+ * rebuilding the graph and rerunning Kruskal, which is what a closure costs without it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DynamicMSTBenchmark {
+    @Param({"RANDOM", "GRID"})
+    public BenchmarkGraphs.Shape shape;
+
+    @Param({"100000"})
+    public int vertices;
+
+    @Param({"8"})
+    public int degree;
+
+    private Main.GraphInput input;
+    private Graph graph;
+    private Random rand;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        input = BenchmarkGraphs.create(shape, vertices, degree, 42);
+        graph = new Graph(input.nodes, input.edges);
+        graph.currentMSTCost();
+        rand = new Random(7);
+    }
+
+    /** Closes a random road and reopens it with its old weight (two updates). */
+    @Benchmark
+    public long dynamicCloseAndReopen() {
+        Main.EdgeInput e = input.edges.get(rand.nextInt(input.edges.size()));
+        graph.removeEdge(e.from, e.to);
+        graph.addEdge(e.from, e.to, e.weight);
+        return graph.currentMSTCost();
+    }
+
+    /** Changes a random road's weight and then restores it (two updates). */
+    @Benchmark
+    public long dynamicWeightChange() {
+        Main.EdgeInput e = input.edges.get(rand.nextInt(input.edges.size()));
+        graph.updateWeight(e.from, e.to, 1 + rand.nextInt(40));
+        graph.updateWeight(e.from, e.to, e.weight);
+        return graph.currentMSTCost();
+    }
+
+    /** The recompute-from-scratch baseline for a single closure. */
+    @Benchmark
+    public Graph.MSTResult recomputeAfterClosure() {
+        int closed = rand.nextInt(input.edges.size());
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        for (String label : input.nodes) {
+            builder.addNode(label);
+        }
+        for (int i = 0; i < input.edges.size(); i++) {
+            if (i != closed) {
+                Main.EdgeInput e = input.edges.get(i);
+                builder.addEdge(e.from, e.to, e.weight);
+            }
+        }
+        return builder.build().computeKruskalMST();
+    }
+}
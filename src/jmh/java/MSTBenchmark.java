@@ -0,0 +1,80 @@
+package jmh.java;
+
+import main.java.Main;
+import main.java.model_classes.CsrGraph;
+import main.java.model_classes.Graph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every MST engine over the benchmark graph shapes. Graph construction happens in setup, so
+ * the numbers cover the whole engine call including Kruskal's sort and result mapping.
+ * Run with {@code ./gradlew jmh}; the gc profiler adds allocation rate per operation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MSTBenchmark {
+    @Param({"TREE", "RANDOM", "GRID", "COMPLETE", "GEOMETRIC", "POWER_LAW"})
+    public BenchmarkGraphs.Shape shape;
+
+    @Param({"1000", "100000"})
+    public int vertices;
+
+    @Param({"4", "16"})
+    public int degree;
+
+    private Graph graph;
+    private CsrGraph csr;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Main.GraphInput input = BenchmarkGraphs.create(shape, vertices, degree, 42);
+        graph = new Graph(input.nodes, input.edges);
+        csr = Main.toCsr(input);
+    }
+
+    @Benchmark
+    public Graph.MSTResult graphPrim() {
+        return graph.computePrimMST();
+    }
+
+    @Benchmark
+    public Graph.MSTResult graphKruskal() {
+        return graph.computeKruskalMST();
+    }
+
+    @Benchmark
+    public Graph.MSTResult prim() {
+        return csr.computePrimMST();
+    }
+
+    @Benchmark
+    public Graph.MSTResult eagerPrimBinary() {
+        return csr.computeEagerPrimMST(2);
+    }
+
+    @Benchmark
+    public Graph.MSTResult eagerPrim4ary() {
+        return csr.computeEagerPrimMST(4);
+    }
+
+    @Benchmark
+    public Graph.MSTResult kruskal() {
+        return csr.computeKruskalMST();
+    }
+
+    @Benchmark
+    public Graph.MSTResult filterKruskal() {
+        return csr.computeFilterKruskalMST();
+    }
+
+    @Benchmark
+    public Graph.MSTResult boruvka() {
+        return csr.computeBoruvkaMST();
+    }
+}
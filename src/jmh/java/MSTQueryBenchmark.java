@@ -0,0 +1,81 @@
+package jmh.java;
+
+import main.java.Main;
+import main.java.model_classes.Graph;
+import main.java.model_classes.MSTQueryIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MSTQueryIndex} construction and bottleneck-query throughput. Each query benchmark
+ * answers one million random vertex pairs, so the reported score is queries per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MSTQueryBenchmark {
+    private static final int QUERIES = 1_000_000;
+
+    @Param({"RANDOM", "GRID"})
+    public BenchmarkGraphs.Shape shape;
+
+    @Param({"100000", "1000000"})
+    public int vertices;
+
+    private Graph.MSTResult mst;
+    private MSTQueryIndex index;
+    private int[] from;
+    private int[] to;
+    private int[] weight;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Main.GraphInput input = BenchmarkGraphs.create(shape, vertices, 8, 42);
+        mst = Main.toCsr(input).computeKruskalMST();
+        index = new MSTQueryIndex(mst);
+        int n = index.getVertexCount();
+        SplittableRandom random = new SplittableRandom(7);
+        from = new int[QUERIES];
+        to = new int[QUERIES];
+        weight = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            from[i] = random.nextInt(n);
+            to[i] = random.nextInt(n);
+            weight[i] = 1 + random.nextInt(20);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public MSTQueryIndex build() {
+        return new MSTQueryIndex(mst);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public long pathMaxSingle() {
+        long sum = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            sum += index.pathMax(from[i], to[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int[] pathMaxBatch() {
+        return index.pathMax(from, to);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public boolean[] improvesBatch() {
+        return index.improves(from, to, weight);
+    }
+}
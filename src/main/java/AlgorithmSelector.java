@@ -0,0 +1,215 @@
+package main.java;
+
+import main.java.generator.GraphGenerator;
+import main.java.model_classes.CsrGraph;
+import main.java.model_classes.EdgeSort;
+import main.java.model_classes.Graph;
+import main.java.model_classes.MSTAlgorithm;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Picks the MST engine expected to be fastest for one graph from its edge count, average degree
+ * and weight range, so only one engine has to run:
+ * <ol>
+ *   <li>at least {@code parallelMinEdges} edges with more than one thread: parallel Boruvka;</li>
+ *   <li>average degree at least {@code denseDegreeNarrow} (weights EdgeSort counting-sorts) or
+ *       {@code denseDegreeWide} (weights it has to comparison-sort): eager Prim, whose heap is
+ *       bounded by V instead of E;</li>
+ *   <li>wide weights and degree at least {@code filterMinDegree}: Filter-Kruskal, which avoids
+ *       sorting edges that close cycles;</li>
+ *   <li>otherwise Kruskal.</li>
+ * </ol>
+ * Disconnected graphs need no rule of their own: the forest mode runs the chosen engine on
+ * every component. The thresholds come from a profile file or from {@link #calibrate}, a
+ * micro-benchmark of the engines on generated graphs, since the crossover points depend on the
+ * machine. {@link #NEVER} disables a rule.
+ */
+public class AlgorithmSelector {
+    public static final int NEVER = Integer.MAX_VALUE;
+
+    /** The committed profile {@value #DEFAULT_PROFILE}, used unless calibration is asked for. */
+    public static final AlgorithmSelector DEFAULT = loadDefault();
+
+    static final String DEFAULT_PROFILE = "auto-selection.properties";
+
+    public final int parallelMinEdges;
+    public final int denseDegreeNarrow;
+    public final int denseDegreeWide;
+    public final int filterMinDegree;
+
+    public AlgorithmSelector(int parallelMinEdges, int denseDegreeNarrow, int denseDegreeWide, int filterMinDegree) {
+        this.parallelMinEdges = parallelMinEdges;
+        this.denseDegreeNarrow = denseDegreeNarrow;
+        this.denseDegreeWide = denseDegreeWide;
+        this.filterMinDegree = filterMinDegree;
+    }
+
+    /**
+     * {@link #DEFAULT}, or the profile named by {@code -Dmst.auto.profile=path}.
+     * {@code -Dmst.auto.calibrate=true} measures the thresholds instead (about two seconds) and
+     * saves them to the profile path when one is given, so later runs can load them.
+     */
+    public static AlgorithmSelector fromSystemProperties(int parallelism) throws IOException {
+        String profile = System.getProperty("mst.auto.profile");
+        if (Boolean.getBoolean("mst.auto.calibrate")) {
+            AlgorithmSelector selector = calibrate(parallelism);
+            if (profile != null) {
+                selector.save(Paths.get(profile));
+            }
+            return selector;
+        }
+        return profile != null ? load(Paths.get(profile)) : DEFAULT;
+    }
+
+    public MSTAlgorithm select(CsrGraph graph, int parallelism) {
+        int n = graph.getVertexCount();
+        int m = graph.getEdgeCount();
+        if (n < 2 || m == 0) {
+            return MSTAlgorithm.KRUSKAL;
+        }
+        if (parallelism > 1 && m >= parallelMinEdges) {
+            return MSTAlgorithm.BORUVKA;
+        }
+        double degree = 2.0 * m / n;
+        boolean narrow = EdgeSort.usesCountingSort(graph.getWeightRange(), m);
+        if (degree >= (narrow ? denseDegreeNarrow : denseDegreeWide)) {
+            return MSTAlgorithm.EAGER_PRIM;
+        }
+        if (!narrow && degree >= filterMinDegree) {
+            return MSTAlgorithm.FILTER_KRUSKAL;
+        }
+        return MSTAlgorithm.KRUSKAL;
+    }
+
+    /** Spanning forest from the selected engine; {@link Graph.MSTResult#algorithm} records which one. */
+    public Graph.MSTResult compute(CsrGraph graph, int parallelism) {
+        MSTAlgorithm algorithm = select(graph, parallelism);
+        Graph.MSTResult result = graph.computeSpanningForest(algorithm, parallelism);
+        result.algorithm = algorithm;
+        return result;
+    }
+
+    public static AlgorithmSelector load(Path file) throws IOException {
+        try (Reader in = Files.newBufferedReader(file)) {
+            return load(in, file.toString());
+        }
+    }
+
+    private static AlgorithmSelector loadDefault() {
+        InputStream resource = AlgorithmSelector.class.getResourceAsStream(DEFAULT_PROFILE);
+        if (resource == null) {
+            throw new IllegalStateException("Missing " + DEFAULT_PROFILE + " on the class path");
+        }
+        try (Reader in = new InputStreamReader(resource, "ISO-8859-1")) {
+            return load(in, DEFAULT_PROFILE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static AlgorithmSelector load(Reader in, String source) throws IOException {
+        Properties properties = new Properties();
+        properties.load(in);
+        try {
+            return new AlgorithmSelector(
+                    Integer.parseInt(properties.getProperty("parallelMinEdges")),
+                    Integer.parseInt(properties.getProperty("denseDegreeNarrow")),
+                    Integer.parseInt(properties.getProperty("denseDegreeWide")),
+                    Integer.parseInt(properties.getProperty("filterMinDegree")));
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid selection profile " + source + ": " + e.getMessage(), e);
+        }
+    }
+
+    public void save(Path file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("parallelMinEdges", Integer.toString(parallelMinEdges));
+        properties.setProperty("denseDegreeNarrow", Integer.toString(denseDegreeNarrow));
+        properties.setProperty("denseDegreeWide", Integer.toString(denseDegreeWide));
+        properties.setProperty("filterMinDegree", Integer.toString(filterMinDegree));
+        try (Writer out = Files.newBufferedWriter(file)) {
+            properties.store(out, "MST engine selection thresholds (" + NEVER + " = never)");
+        }
+    }
+
+    // Edges per calibration graph: large enough to leave the noise, small enough to take ~2 s in total.
+    private static final int CALIBRATION_EDGES = 60_000;
+    private static final int[] CALIBRATION_DEGREES = {4, 8, 16, 32, 64, 128};
+
+    /**
+     * Times the engines on random graphs of {@value #CALIBRATION_EDGES} edges across average
+     * degrees, with narrow (1..20) and wide weights, and sets each threshold to the lowest degree
+     * (or edge count) from which the specialised engine beats Kruskal at every larger point.
+     */
+    public static AlgorithmSelector calibrate(int parallelism) {
+        int denseNarrow = crossover(20, MSTAlgorithm.EAGER_PRIM, parallelism);
+        int denseWide = crossover(1_000_000_000, MSTAlgorithm.EAGER_PRIM, parallelism);
+        int filter = crossover(1_000_000_000, MSTAlgorithm.FILTER_KRUSKAL, parallelism);
+        int parallel = NEVER;
+        if (parallelism > 1) {
+            boolean winsFromHere = true;
+            for (int edges = 4 * CALIBRATION_EDGES; edges >= CALIBRATION_EDGES / 4 && winsFromHere; edges /= 2) {
+                CsrGraph graph = calibrationGraph(edges / 4, edges, 1_000_000_000);
+                winsFromHere = bestTimeNanos(graph, MSTAlgorithm.BORUVKA, parallelism)
+                        < bestTimeNanos(graph, MSTAlgorithm.KRUSKAL, parallelism);
+                if (winsFromHere) {
+                    parallel = edges;
+                }
+            }
+        }
+        return new AlgorithmSelector(parallel, denseNarrow, denseWide, filter);
+    }
+
+    // Lowest calibration degree from which the engine beats Kruskal at every higher degree.
+    private static int crossover(int maxWeight, MSTAlgorithm engine, int parallelism) {
+        int threshold = NEVER;
+        for (int i = CALIBRATION_DEGREES.length - 1; i >= 0; i--) {
+            int degree = CALIBRATION_DEGREES[i];
+            CsrGraph graph = calibrationGraph(Math.max(2, 2 * CALIBRATION_EDGES / degree), CALIBRATION_EDGES, maxWeight);
+            if (bestTimeNanos(graph, engine, parallelism) >= bestTimeNanos(graph, MSTAlgorithm.KRUSKAL, parallelism)) {
+                break;
+            }
+            threshold = degree;
+        }
+        return threshold;
+    }
+
+    private static CsrGraph calibrationGraph(int vertices, int edges, int maxWeight) {
+        long maxEdges = (long) vertices * (vertices - 1) / 2;
+        return new GraphGenerator(GraphGenerator.Topology.RANDOM, vertices, Math.min(edges, maxEdges), maxWeight, 42)
+                .generate(1).toBuilder().build();
+    }
+
+    // Best of a few runs after a warm-up run, so the JIT has compiled the engine first.
+    private static long bestTimeNanos(CsrGraph graph, MSTAlgorithm algorithm, int parallelism) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 4; run++) {
+            long start = System.nanoTime();
+            if (algorithm == MSTAlgorithm.BORUVKA) {
+                graph.computeBoruvkaMST(parallelism);
+            } else {
+                graph.computeMST(algorithm);
+            }
+            long elapsed = System.nanoTime() - start;
+            if (run > 0) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public String toString() {
+        return "parallelMinEdges=" + format(parallelMinEdges) + ", denseDegreeNarrow=" + format(denseDegreeNarrow)
+                + ", denseDegreeWide=" + format(denseDegreeWide) + ", filterMinDegree=" + format(filterMinDegree);
+    }
+
+    private static String format(int threshold) {
+        return threshold == NEVER ? "never" : Integer.toString(threshold);
+    }
+}
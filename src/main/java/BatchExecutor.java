@@ -0,0 +1,77 @@
+package main.java;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.*;
+
+/**
+ * Runs independent per-graph tasks on a fixed pool while handing results to a consumer
+ * strictly in submission order. At most {@code maxInFlight} tasks are pending at a time:
+ * {@link #submit} blocks on the oldest one once the window is full, so memory is bounded by
+ * the number of graphs in flight rather than by the size of the input.
+ */
+public class BatchExecutor<T> implements AutoCloseable {
+    public interface ResultConsumer<T> {
+        void accept(T result) throws IOException;
+    }
+
+    private final ExecutorService pool;
+    private final int maxInFlight;
+    private final ResultConsumer<T> consumer;
+    private final Deque<Future<T>> inFlight = new ArrayDeque<>();
+
+    public BatchExecutor(int parallelism, int maxInFlight, ResultConsumer<T> consumer) {
+        if (parallelism < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("parallelism and maxInFlight must be positive");
+        }
+        this.pool = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "mst-batch");
+            t.setDaemon(true);
+            return t;
+        });
+        this.maxInFlight = maxInFlight;
+        this.consumer = consumer;
+    }
+
+    public void submit(Callable<T> task) throws IOException {
+        while (inFlight.size() >= maxInFlight) {
+            emitOldest();
+        }
+        inFlight.addLast(pool.submit(task));
+    }
+
+    /** Waits for every submitted task and emits the remaining results in order. */
+    public void finish() throws IOException {
+        while (!inFlight.isEmpty()) {
+            emitOldest();
+        }
+    }
+
+    private void emitOldest() throws IOException {
+        Future<T> future = inFlight.removeFirst();
+        T result;
+        try {
+            result = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a graph result", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause);
+        }
+        consumer.accept(result);
+    }
+
+    @Override
+    public void close() {
+        for (Future<T> future : inFlight) {
+            future.cancel(true);
+        }
+        inFlight.clear();
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,70 @@
+package main.java;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free request latency histogram with fixed bucket bounds, rendered in the Prometheus text
+ * format so any scraper (or {@code curl}) can read it. Recording is one array increment and one
+ * adder update, cheap enough to run on every request.
+ */
+public class LatencyHistogram {
+    // Upper bounds in milliseconds; the last bucket is +Inf.
+    private static final double[] BOUNDS_MS = {
+            0.5, 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDS_MS.length + 1);
+    private final LongAdder sumNanos = new LongAdder();
+
+    public void record(long nanos) {
+        double ms = nanos / 1e6;
+        int bucket = 0;
+        while (bucket < BOUNDS_MS.length && ms > BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+        sumNanos.add(nanos);
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /** Upper bound in milliseconds of the bucket holding the q-quantile, infinity past the last bound, NaN when empty. */
+    public double quantileMs(double q) {
+        long total = count();
+        if (total == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return BOUNDS_MS[i];
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /** Appends {@code name_bucket}, {@code name_sum} and {@code name_count} lines with the given labels. */
+    public void writePrometheus(StringBuilder out, String name, String labels) {
+        long cumulative = 0;
+        for (int i = 0; i <= BOUNDS_MS.length; i++) {
+            cumulative += counts.get(i);
+            String le = i < BOUNDS_MS.length ? Double.toString(BOUNDS_MS[i] / 1000) : "+Inf";
+            out.append(name).append("_bucket{").append(labels);
+            if (!labels.isEmpty()) {
+                out.append(',');
+            }
+            out.append("le=\"").append(le).append("\"} ").append(cumulative).append('\n');
+        }
+        String suffix = labels.isEmpty() ? " " : "{" + labels + "} ";
+        out.append(name).append("_sum").append(suffix).append(Double.toString(sumNanos.sum() / 1e9)).append('\n');
+        out.append(name).append("_count").append(suffix).append(cumulative).append('\n');
+    }
+}
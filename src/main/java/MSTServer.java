@@ -0,0 +1,329 @@
+package main.java;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import main.java.model_classes.CsrGraph;
+import main.java.model_classes.Graph;
+import main.java.model_classes.MSTAlgorithm;
+
+import java.io.*;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Long-running HTTP front end for the MST engines, so repeated requests hit JIT-compiled code
+ * instead of paying JVM startup per batch run.
+ * <ul>
+ *   <li>{@code POST /mst?algorithm=kruskal} takes one graph in the {@link Main.GraphInput} JSON
+ *       shape and answers with its spanning forest in the {@code output.json} result layout;
+ *       {@code algorithm=auto} lets the {@link AlgorithmSelector} pick the engine.</li>
+ *   <li>{@code GET /metrics} reports per-algorithm latency histograms and admission counters in
+ *       the Prometheus text format.</li>
+ *   <li>{@code GET /health} answers {@code ok}.</li>
+ * </ul>
+ * At most {@code concurrency} graphs are computed at once and at most {@code queueCapacity}
+ * more wait for a slot; requests beyond that, or waiting longer than the queue timeout, get
+ * 503 with {@code Retry-After}. Bodies over {@code maxBodyBytes}, by Content-Length or once that
+ * many bytes have been streamed, get 413 before the graph is built. Each connection is served on its own thread: a virtual thread
+ * when the JVM has them (Java 21+), otherwise a pooled platform thread.
+ * <p>
+ * Configured with {@code -Dmst.server.concurrency} (default: cores), {@code -Dmst.server.queue}
+ * (default 4 x concurrency), {@code -Dmst.server.queueTimeoutMs} (default 5000),
+ * {@code -Dmst.server.maxBodyMb} (default 64) and the
+ * {@code -Dmst.auto.*} selection settings, which are loaded (or calibrated) once at startup.
+ */
+public class MSTServer implements AutoCloseable {
+    private static final String METRIC = "mst_request_duration_seconds";
+    private static final long DEFAULT_MAX_BODY_BYTES = 64L << 20;
+
+    private final HttpServer http;
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final int queueCapacity;
+    private final long queueTimeoutMs;
+    private final long maxBodyBytes;
+    private final AlgorithmSelector selector;
+    private final Semaphore slots;
+    private final AtomicInteger admitted = new AtomicInteger();   // computing plus queued
+    private final AtomicInteger computing = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder tooLarge = new LongAdder();
+    private final Map<MSTAlgorithm, LatencyHistogram> latency = new EnumMap<>(MSTAlgorithm.class);
+
+    public MSTServer(int port, int concurrency, int queueCapacity, long queueTimeoutMs) throws IOException {
+        this(port, concurrency, queueCapacity, queueTimeoutMs, AlgorithmSelector.DEFAULT);
+    }
+
+    public MSTServer(int port, int concurrency, int queueCapacity, long queueTimeoutMs,
+                     AlgorithmSelector selector) throws IOException {
+        this(port, concurrency, queueCapacity, queueTimeoutMs, DEFAULT_MAX_BODY_BYTES, selector);
+    }
+
+    public MSTServer(int port, int concurrency, int queueCapacity, long queueTimeoutMs, long maxBodyBytes,
+                     AlgorithmSelector selector) throws IOException {
+        if (concurrency < 1 || queueCapacity < 0 || maxBodyBytes < 1) {
+            throw new IllegalArgumentException("concurrency and body limit must be positive and queue capacity non-negative");
+        }
+        this.concurrency = concurrency;
+        this.queueCapacity = queueCapacity;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.maxBodyBytes = maxBodyBytes;
+        this.selector = selector;
+        this.slots = new Semaphore(concurrency, true);
+        for (MSTAlgorithm algorithm : MSTAlgorithm.values()) {
+            latency.put(algorithm, new LatencyHistogram());
+        }
+        this.executor = newRequestExecutor();
+        this.http = HttpServer.create(new InetSocketAddress(port), 0);
+        http.createContext("/mst", this::handleMst);
+        http.createContext("/metrics", this::handleMetrics);
+        http.createContext("/health", exchange -> respond(exchange, 200, "text/plain", "ok\n"));
+        http.setExecutor(executor);
+    }
+
+    public static MSTServer fromSystemProperties(int port) throws IOException {
+        int concurrency = Integer.getInteger("mst.server.concurrency", Runtime.getRuntime().availableProcessors());
+        return new MSTServer(port, concurrency, Integer.getInteger("mst.server.queue", 4 * concurrency),
+                Long.getLong("mst.server.queueTimeoutMs", 5000), Long.getLong("mst.server.maxBodyMb", 64) << 20,
+                AlgorithmSelector.fromSystemProperties(1));
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() is looked up reflectively so the build can keep
+    // targeting Java 11; older JVMs fall back to a cached pool of daemon platform threads.
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "mst-http");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    public void start() {
+        http.start();
+    }
+
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    /** Stops accepting connections, gives exchanges in progress up to a second, then stops the threads. */
+    @Override
+    public void close() {
+        http.stop(1);
+        executor.shutdownNow();
+    }
+
+    private void handleMst(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        try {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "text/plain", "POST a graph to /mst\n");
+                return;
+            }
+            MSTAlgorithm algorithm;
+            try {
+                algorithm = parseAlgorithm(exchange.getRequestURI().getQuery());
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, "text/plain", e.getMessage() + "\n");
+                return;
+            }
+            String length = exchange.getRequestHeaders().getFirst("Content-Length");
+            try {
+                if (length != null && Long.parseLong(length.trim()) > maxBodyBytes) {
+                    tooLarge(exchange);
+                    return;
+                }
+            } catch (NumberFormatException e) {
+                failed.increment();
+                respond(exchange, 400, "text/plain", "Invalid Content-Length " + length + "\n");
+                return;
+            }
+            if (admitted.incrementAndGet() > concurrency + queueCapacity) {
+                admitted.decrementAndGet();
+                reject(exchange, "queue full");
+                return;
+            }
+            try {
+                if (!slots.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    reject(exchange, "timed out waiting for a slot");
+                    return;
+                }
+                computing.incrementAndGet();
+                try {
+                    algorithm = serve(exchange, algorithm);
+                } finally {
+                    computing.decrementAndGet();
+                    slots.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                reject(exchange, "shutting down");
+                return;
+            } finally {
+                admitted.decrementAndGet();
+            }
+            if (algorithm != null) {
+                latency.get(algorithm).record(System.nanoTime() - start);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Returns the engine that ran, or null for a rejected body; a null algorithm means auto.
+    private MSTAlgorithm serve(HttpExchange exchange, MSTAlgorithm algorithm) throws IOException {
+        StreamingGraphReader.GraphRecord record;
+        try {
+            record = StreamingGraphReader.readOne(new BufferedReader(new InputStreamReader(
+                    new LimitedInputStream(exchange.getRequestBody(), maxBodyBytes), StandardCharsets.UTF_8), 1 << 16));
+        } catch (BodyTooLargeException e) {
+            tooLarge(exchange);
+            return null;
+        } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+            failed.increment();
+            respond(exchange, 400, "text/plain", "Invalid graph: " + e.getMessage() + "\n");
+            return null;
+        }
+        CsrGraph graph = record.builder.build();
+        // Requests already run side by side, so each graph is solved on its own thread.
+        Graph.MSTResult result = algorithm == null
+                ? selector.compute(graph, 1)
+                : graph.computeSpanningForest(algorithm, 1);
+        String key = algorithm == null ? "auto" : algorithm.name().toLowerCase(Locale.ROOT);
+
+        StringWriter body = new StringWriter();
+        body.write("{\n  \"graph_id\": " + record.id
+                + ",\n  \"input_stats\": {\"vertices\": " + graph.getVertexCount()
+                + ", \"edges\": " + graph.getEdgeCount() + "},\n  \""
+                + key + "\": ");
+        ResultSink.writeAlgorithm(body, result);
+        body.write("\n}\n");
+        respond(exchange, 200, "application/json", body.toString());
+        return algorithm == null ? result.algorithm : algorithm;
+    }
+
+    // Kruskal when no algorithm is given; null for auto.
+    private static MSTAlgorithm parseAlgorithm(String query) {
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith("algorithm=")) {
+                    String name = parameter.substring("algorithm=".length()).toUpperCase(Locale.ROOT);
+                    if (name.equals("AUTO")) {
+                        return null;
+                    }
+                    try {
+                        return MSTAlgorithm.valueOf(name);
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Unknown algorithm " + name);
+                    }
+                }
+            }
+        }
+        return MSTAlgorithm.KRUSKAL;
+    }
+
+    private void reject(HttpExchange exchange, String reason) throws IOException {
+        rejected.increment();
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        respond(exchange, 503, "text/plain", "Overloaded: " + reason + "\n");
+    }
+
+    private void tooLarge(HttpExchange exchange) throws IOException {
+        tooLarge.increment();
+        respond(exchange, 413, "text/plain", "Request body exceeds " + maxBodyBytes + " bytes\n");
+    }
+
+    private static class BodyTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    // Counts what the parser pulls from a body of unknown length (chunked transfer encoding).
+    private static class LimitedInputStream extends FilterInputStream {
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0 && --remaining < 0) {
+                throw new BodyTooLargeException();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0 && (remaining -= n) < 0) {
+                throw new BodyTooLargeException();
+            }
+            return n;
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try {
+            StringBuilder out = new StringBuilder();
+            out.append("# TYPE ").append(METRIC).append(" histogram\n");
+            for (Map.Entry<MSTAlgorithm, LatencyHistogram> entry : latency.entrySet()) {
+                String algorithm = entry.getKey().name().toLowerCase(Locale.ROOT);
+                entry.getValue().writePrometheus(out, METRIC, "algorithm=\"" + algorithm + "\"");
+            }
+            out.append("# Bucket upper bounds of the 50th and 99th percentile latency.\n");
+            for (Map.Entry<MSTAlgorithm, LatencyHistogram> entry : latency.entrySet()) {
+                String algorithm = entry.getKey().name().toLowerCase(Locale.ROOT);
+                out.append("mst_request_p50_seconds{algorithm=\"").append(algorithm).append("\"} ")
+                        .append(seconds(entry.getValue().quantileMs(0.50))).append('\n');
+                out.append("mst_request_p99_seconds{algorithm=\"").append(algorithm).append("\"} ")
+                        .append(seconds(entry.getValue().quantileMs(0.99))).append('\n');
+            }
+            out.append("# TYPE mst_requests_rejected_total counter\n");
+            out.append("mst_requests_rejected_total ").append(rejected.sum()).append('\n');
+            out.append("# TYPE mst_requests_invalid_total counter\n");
+            out.append("mst_requests_invalid_total ").append(failed.sum()).append('\n');
+            out.append("# TYPE mst_requests_too_large_total counter\n");
+            out.append("mst_requests_too_large_total ").append(tooLarge.sum()).append('\n');
+            out.append("# TYPE mst_requests_in_flight gauge\n");
+            out.append("mst_requests_in_flight ").append(computing.get()).append('\n');
+            out.append("# TYPE mst_requests_queued gauge\n");
+            out.append("mst_requests_queued ").append(Math.max(0, admitted.get() - computing.get())).append('\n');
+            respond(exchange, 200, "text/plain; version=0.0.4", out.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static String seconds(double ms) {
+        return Double.isInfinite(ms) ? "+Inf" : Double.toString(ms / 1000);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
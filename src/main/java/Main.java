@@ -1,10 +1,17 @@
 package main.java;
 
-import com.google.gson.Gson;
-import main.java.model_classes.Edge;
+import main.java.generator.GeneratedGraph;
+import main.java.generator.GraphGenerator;
+import main.java.model_classes.BinaryGraphFile;
+import main.java.model_classes.CsrGraph;
+import main.java.model_classes.ExternalKruskal;
 import main.java.model_classes.Graph;
+import main.java.model_classes.MSTAlgorithm;
+import main.java.model_classes.MSTStats;
 
 import java.io.*;
+import java.lang.ref.Reference;
+import java.nio.file.Paths;
 import java.util.*;
 
 public class Main {
@@ -30,6 +37,8 @@ public class Main {
         public InputStats input_stats;
         public Graph.MSTResult prim;
         public Graph.MSTResult kruskal;
+        public Graph.MSTResult auto;   // set instead of prim and kruskal with -Dmst.algorithm=auto
+        public String cache = "off";   // hit, miss or off; reported in summary.csv
         public OutputResult(int graphId, InputStats stats, Graph.MSTResult primRes, Graph.MSTResult kruskalRes) {
             this.graph_id = graphId;
             this.input_stats = stats;
@@ -39,31 +48,43 @@ public class Main {
     }
 
     public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("--convert")) {
+            convertToBinary(args[1], args[2]);
+            return;
+        }
+        if (args.length == 6 && args[0].equals("--generate")) {
+            generate(args);
+            return;
+        }
+        if (args.length == 2 && args[0].equals("--serve")) {
+            serve(Integer.parseInt(args[1]));
+            return;
+        }
+        if (args.length == 3 && args[0].equals("--memory-report")) {
+            memoryReport(Integer.parseInt(args[1]), Long.parseLong(args[2]));
+            return;
+        }
+        if (args.length == 3 && args[0].equals("--scaling-report")) {
+            scalingReport(Integer.parseInt(args[1]), Long.parseLong(args[2]));
+            return;
+        }
+        if (args.length == 2 && args[0].equals("--external")) {
+            computeExternal(args[1]);
+            return;
+        }
         String inputFile = args.length > 0 ? args[0] : "/Users/bexultan/IdeaProjects/Trees/src/main/java/input.json";
-        Gson gson = new Gson();
-        try (Reader reader = new FileReader(inputFile)) {
-            InputData data = gson.fromJson(reader, InputData.class);
-            if (data == null || data.graphs == null) {
+        if (AUTO) {
+            System.err.println("Engine selection: " + SELECTOR);
+        }
+        try (ResultSink sink = new ResultSink("output.json", "summary.csv", AUTO)) {
+            int maxId = inputFile.endsWith(BinaryGraphFile.EXTENSION)
+                    ? computeBinaryInput(inputFile, sink)
+                    : computeJsonInput(inputFile, sink);
+            if (maxId < 0) {
                 System.err.println("Invalid input format.");
                 return;
             }
-            List<GraphInput> inputGraphs = data.graphs;
-            List<OutputResult> results = new ArrayList<>();
-
-            for (GraphInput g : inputGraphs) {
-                Graph graph = new Graph(g.nodes, g.edges);
-                Graph.MSTResult primRes = graph.computePrimMST();
-                Graph.MSTResult kruskalRes = graph.computeKruskalMST();
-                if (primRes.totalCost != kruskalRes.totalCost) {
-                    System.err.println("Warning: Prim and Kruskal cost mismatch for graph " + g.id);
-                }
-                results.add(new OutputResult(
-                        g.id,
-                        new InputStats(graph.getVertexCount(), graph.getEdgeCount()),
-                        primRes, kruskalRes));
-            }
 
-            int maxId = inputGraphs.stream().mapToInt(g -> g.id).max().orElse(0);
             Random rand = new Random(12345);
             List<GraphInput> smallGraphs = generateGraphs(rand, /*count=*/3, /*nodes=*/10, /*edges=*/20, maxId + 1);
             List<GraphInput> mediumGraphs = generateGraphs(rand, 1, 100, 300, maxId + 1001);
@@ -72,120 +93,328 @@ public class Main {
             saveGraphsToJson(mediumGraphs, "input_medium.json");
             saveGraphsToJson(largeGraphs, "input_large.json");
 
-            List<OutputResult> syntheticResults = new ArrayList<>();
-            for (GraphInput g : concatLists(smallGraphs, mediumGraphs, largeGraphs)) {
-                Graph graph = new Graph(g.nodes, g.edges);
-                Graph.MSTResult primRes = graph.computePrimMST();
-                Graph.MSTResult kruskalRes = graph.computeKruskalMST();
-                syntheticResults.add(new OutputResult(
-                        g.id,
-                        new InputStats(graph.getVertexCount(), graph.getEdgeCount()),
-                        primRes, kruskalRes));
+            runBatch(concatLists(smallGraphs, mediumGraphs, largeGraphs), sink::writeSummary);
+        }
+        if (CACHE.isEnabled()) {
+            System.err.println("Result cache: " + CACHE.getHits() + " hits (" + CACHE.getDiskHits()
+                    + " from disk), " + CACHE.getMisses() + " misses");
+        }
+    }
+
+    // Returns the largest graph id seen, or -1 if the file has no "graphs" array.
+    private static int computeJsonInput(String inputFile, ResultSink sink) throws IOException {
+        int maxId = 0;
+        try (StreamingGraphReader reader = new StreamingGraphReader(
+                new BufferedReader(new FileReader(inputFile), 1 << 16));
+             BatchExecutor<OutputResult> batch = new BatchExecutor<>(BATCH_THREADS, BATCH_IN_FLIGHT, sink::writeResult)) {
+            StreamingGraphReader.GraphRecord record;
+            while ((record = reader.next()) != null) {
+                StreamingGraphReader.GraphRecord g = record;
+                maxId = Math.max(maxId, g.id);
+                batch.submit(() -> computeCached(g.id, g.builder));
             }
+            batch.finish();
+            return reader.foundGraphs() ? maxId : -1;
+        }
+    }
 
-            try (PrintWriter out = new PrintWriter("output.json")) {
-                out.println("{");
-                out.println("  \"results\": [");
-                for (int i = 0; i < results.size(); i++) {
-                    OutputResult r = results.get(i);
-                    out.println("    {");
-                    out.println("      \"graph_id\": " + r.graph_id + ",");
-                    out.println("      \"input_stats\": {");
-                    out.println("        \"vertices\": " + r.input_stats.vertices + ",");
-                    out.println("        \"edges\": " + r.input_stats.edges);
-                    out.println("      },");
-                    out.println("      \"prim\": {");
-                    out.println("        \"mst_edges\": [");
-                    for (int j = 0; j < r.prim.mstEdges.size(); j++) {
-                        Edge e = r.prim.mstEdges.get(j);
-                        out.print("          {\"from\": \"" + e.from + "\", \"to\": \"" + e.to + "\", \"weight\": " + e.weight + "}");
-                        out.println(j < r.prim.mstEdges.size() - 1 ? "," : "");
-                    }
-                    out.println("        ],");
-                    out.println("        \"total_cost\": " + r.prim.totalCost + ",");
-                    out.println("        \"operations_count\": " + r.prim.operationsCount + ",");
-                    out.printf("        \"execution_time_ms\": %.2f\n", r.prim.executionTimeMs);
-                    out.println("      },");
-                    out.println("      \"kruskal\": {");
-                    out.println("        \"mst_edges\": [");
-                    for (int j = 0; j < r.kruskal.mstEdges.size(); j++) {
-                        Edge e = r.kruskal.mstEdges.get(j);
-                        out.print("          {\"from\": \"" + e.from + "\", \"to\": \"" + e.to + "\", \"weight\": " + e.weight + "}");
-                        out.println(j < r.kruskal.mstEdges.size() - 1 ? "," : "");
-                    }
-                    out.println("        ],");
-                    out.println("        \"total_cost\": " + r.kruskal.totalCost + ",");
-                    out.println("        \"operations_count\": " + r.kruskal.operationsCount + ",");
-                    out.printf("        \"execution_time_ms\": %.2f\n", r.kruskal.executionTimeMs);
-                    out.println("      }");
-                    out.println("    }" + (i < results.size() - 1 ? "," : ""));
+    private static int computeBinaryInput(String inputFile, ResultSink sink) throws IOException {
+        int maxId = 0;
+        try (BinaryGraphFile.Reader reader = new BinaryGraphFile.Reader(Paths.get(inputFile));
+             BatchExecutor<OutputResult> batch = new BatchExecutor<>(BATCH_THREADS, BATCH_IN_FLIGHT, sink::writeResult)) {
+            BinaryGraphFile.Entry entry;
+            while ((entry = reader.next()) != null) {
+                BinaryGraphFile.Entry g = entry;
+                maxId = Math.max(maxId, g.id);
+                batch.submit(() -> computeCached(g.id, g.graph));
+            }
+            batch.finish();
+        }
+        return maxId;
+    }
+
+    // Graphs are streamed into the file, so they may exceed the heap (-Dmst.external.budgetMb bounds the buffers).
+    private static void convertToBinary(String jsonFile, String binaryFile) throws IOException {
+        try (StreamingGraphReader reader = new StreamingGraphReader(
+                new BufferedReader(new FileReader(jsonFile), 1 << 16));
+             BinaryGraphFile.Writer writer = new BinaryGraphFile.Writer(Paths.get(binaryFile))) {
+            while (reader.hasNext()) {
+                try (BinaryGraphFile.Writer.StreamedGraph graph = writer.beginGraph(externalBudget())) {
+                    graph.commit(reader.next(graph));
                 }
-                out.println("  ]");
-                out.println("}");
             }
+            if (!reader.foundGraphs()) {
+                System.err.println("Invalid input format.");
+            }
+        }
+    }
 
-            try (PrintWriter csv = new PrintWriter("summary.csv")) {
-                csv.println("graph_id,vertices,edges,prim_time_ms,prim_operations,kruskal_time_ms,kruskal_operations");
-                for (OutputResult r : concatLists(results, syntheticResults)) {
-                    csv.printf("%d,%d,%d,%.2f,%d,%.2f,%d\n",
-                            r.graph_id, r.input_stats.vertices, r.input_stats.edges,
-                            r.prim.executionTimeMs, r.prim.operationsCount,
-                            r.kruskal.executionTimeMs, r.kruskal.operationsCount);
+    // --generate <topology> <vertices> <edges> <seed> <out.json|out.mstg>, on -Dmst.threads threads.
+    private static void generate(String[] args) throws IOException {
+        GraphGenerator.Topology topology = GraphGenerator.Topology.valueOf(args[1].toUpperCase());
+        long start = System.nanoTime();
+        GeneratedGraph graph = new GraphGenerator(topology, Integer.parseInt(args[2]), Long.parseLong(args[3]),
+                20, Long.parseLong(args[4])).generate(BATCH_THREADS);
+        if (args[5].endsWith(BinaryGraphFile.EXTENSION)) {
+            graph.writeBinary(Paths.get(args[5]), 1, externalBudget());
+        } else {
+            graph.writeJson(Paths.get(args[5]), 1);
+        }
+        System.out.println("Generated " + topology + " graph: vertices=" + graph.vertices + ", edges="
+                + graph.getEdgeCount() + ", time_ms=" + (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Kruskal over the edge columns of a binary file without loading them (-Dmst.external.dir, -Dmst.external.budgetMb).
+    private static void computeExternal(String binaryFile) throws IOException {
+        String workDir = System.getProperty("mst.external.dir", System.getProperty("java.io.tmpdir"));
+        ExternalKruskal kruskal = new ExternalKruskal(Paths.get(workDir), externalBudget());
+        try (BinaryGraphFile.Reader reader = new BinaryGraphFile.Reader(Paths.get(binaryFile))) {
+            BinaryGraphFile.StreamedEntry entry;
+            while ((entry = reader.nextStreamed()) != null) {
+                Graph.MSTResult result = kruskal.compute(entry.labels, entry.edges);
+                System.out.println("Graph " + entry.id + ": vertices=" + entry.labels.length
+                        + ", edges=" + entry.edgeCount + ", mst_edges=" + result.mstEdges.size()
+                        + ", total_cost=" + result.totalCost + ", time_ms=" + result.executionTimeMs);
+            }
+        }
+    }
+
+    private static long externalBudget() {
+        return Long.getLong("mst.external.budgetMb", 256) << 20;
+    }
+
+    // --serve <port>: HTTP endpoint until the JVM is stopped (-Dmst.server.concurrency, .queue, .queueTimeoutMs).
+    private static void serve(int port) throws IOException {
+        MSTServer server = MSTServer.fromSystemProperties(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "mst-http-shutdown"));
+        server.start();
+        System.out.println("Serving MST requests on port " + server.getPort());
+    }
+
+    // --memory-report <vertices> <edges>: retained heap of each graph representation for one random graph.
+    private static void memoryReport(int vertices, long edges) {
+        GeneratedGraph generated = new GraphGenerator(GraphGenerator.Topology.RANDOM, vertices, edges, 20, 42)
+                .generate(BATCH_THREADS);
+        int m = generated.getEdgeCount();
+        System.out.println("representation,bytes,bytes_per_edge");
+        long before = usedHeap();
+        GraphInput input = generated.toGraphInput(1);
+        reportRow("GraphInput", usedHeap() - before, m);
+        Reference.reachabilityFence(input);
+
+        // Built from a fresh input that is dropped afterwards, so only what the graph keeps is counted.
+        before = usedHeap();
+        Graph graph = toGraph(generated.toGraphInput(1));
+        reportRow("Graph", usedHeap() - before, m);
+        Reference.reachabilityFence(graph);
+
+        before = usedHeap();
+        CsrGraph csr = generated.toBuilder().build();
+        reportRow("CsrGraph", usedHeap() - before, m);
+        Reference.reachabilityFence(csr);
+    }
+
+    private static Graph toGraph(GraphInput g) {
+        return new Graph(g.nodes, g.edges);
+    }
+
+    private static void reportRow(String name, long bytes, int edges) {
+        System.out.printf("%s,%d,%.1f%n", name, bytes, edges == 0 ? 0.0 : (double) bytes / edges);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Graphs computed concurrently (-Dmst.threads) and results buffered ahead of the writer (-Dmst.inflight).
+    static final int BATCH_THREADS = Integer.getInteger("mst.threads", Runtime.getRuntime().availableProcessors());
+    static final int BATCH_IN_FLIGHT = Integer.getInteger("mst.inflight", 2 * BATCH_THREADS);
+
+    private static void runBatch(List<GraphInput> graphs, BatchExecutor.ResultConsumer<OutputResult> consumer) throws IOException {
+        try (BatchExecutor<OutputResult> batch = new BatchExecutor<>(BATCH_THREADS, BATCH_IN_FLIGHT, consumer)) {
+            for (GraphInput g : graphs) {
+                batch.submit(() -> computeCached(g.id, toBuilder(g)));
+            }
+            batch.finish();
+        }
+    }
+
+    public static CsrGraph toCsr(GraphInput g) {
+        return toBuilder(g).build();
+    }
+
+    static CsrGraph.Builder toBuilder(GraphInput g) {
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        for (String label : g.nodes) {
+            builder.addNode(label);
+        }
+        for (EdgeInput e : g.edges) {
+            builder.addEdge(e.from, e.to, e.weight);
+        }
+        return builder;
+    }
+
+    // Results for graphs whose content was seen before (-Dmst.cache.mb, -Dmst.cache.dir).
+    static final ResultCache CACHE = createCache();
+
+    private static ResultCache createCache() {
+        try {
+            return ResultCache.fromSystemProperties();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // A hit skips building the CSR arrays as well as the MST computations.
+    static OutputResult computeCached(int graphId, CsrGraph.Builder builder) {
+        if (!CACHE.isEnabled()) {
+            return computeResult(graphId, builder.build());
+        }
+        String key = cacheKey(builder.contentHash());
+        OutputResult cached = fromCache(graphId, key);
+        return cached != null ? cached : computeAndCache(graphId, key, builder.build());
+    }
+
+    static OutputResult computeCached(int graphId, CsrGraph graph) {
+        if (!CACHE.isEnabled()) {
+            return computeResult(graphId, graph);
+        }
+        String key = cacheKey(graph.contentHash());
+        OutputResult cached = fromCache(graphId, key);
+        return cached != null ? cached : computeAndCache(graphId, key, graph);
+    }
+
+    // Auto mode caches a different set of results for the same graph.
+    private static String cacheKey(String contentHash) {
+        return AUTO ? contentHash + "-auto" : contentHash;
+    }
+
+    private static OutputResult fromCache(int graphId, String key) {
+        ResultCache.Entry entry = CACHE.get(key);
+        if (entry == null) {
+            return null;
+        }
+        OutputResult result = new OutputResult(graphId, new InputStats(entry.vertices, entry.edges), entry.prim, entry.kruskal);
+        result.auto = entry.auto;
+        result.cache = "hit";
+        return result;
+    }
+
+    private static OutputResult computeAndCache(int graphId, String key, CsrGraph graph) {
+        OutputResult result = computeResult(graphId, graph);
+        result.cache = "miss";
+        CACHE.put(key, new ResultCache.Entry(result.input_stats.vertices, result.input_stats.edges,
+                result.prim, result.kruskal, result.auto));
+        return result;
+    }
+
+    // Parallelism inside one graph (Boruvka, large forest components). Every graph shares a single
+    // fork/join pool of this size, so the process runs at most BATCH_THREADS + GRAPH_THREADS threads;
+    // small graphs never reach the pool, while a lone large graph can use every core.
+    private static final int GRAPH_THREADS = Integer.getInteger("mst.graphThreads", Runtime.getRuntime().availableProcessors());
+
+    // -Dmst.algorithm=auto runs one selected engine per graph instead of both Prim and Kruskal;
+    // -Dmst.verify=true checks every cost against a second, independent engine.
+    static final boolean AUTO = "auto".equalsIgnoreCase(System.getProperty("mst.algorithm", "both"));
+    static final boolean VERIFY = Boolean.getBoolean("mst.verify");
+    static final AlgorithmSelector SELECTOR = AUTO ? createSelector() : null;
+
+    private static AlgorithmSelector createSelector() {
+        try {
+            return AlgorithmSelector.fromSystemProperties(GRAPH_THREADS);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static OutputResult computeResult(int graphId, CsrGraph graph) {
+        InputStats inputStats = new InputStats(graph.getVertexCount(), graph.getEdgeCount());
+        if (AUTO) {
+            Graph.MSTResult selected = SELECTOR.compute(graph, GRAPH_THREADS);
+            if (MSTStats.ENABLED) {
+                System.err.println("Graph " + graphId + " " + selected.stats);
+            }
+            if (VERIFY) {
+                MSTAlgorithm reference = selected.algorithm == MSTAlgorithm.KRUSKAL ? MSTAlgorithm.PRIM : MSTAlgorithm.KRUSKAL;
+                verify(graphId, graph.computeSpanningForest(reference, GRAPH_THREADS), reference, selected);
+            }
+            OutputResult result = new OutputResult(graphId, inputStats, null, null);
+            result.auto = selected;
+            return result;
+        }
+        // Forest mode: disconnected inputs get one tree per component from both algorithms.
+        Graph.MSTResult primRes = graph.computeSpanningForest(MSTAlgorithm.PRIM, GRAPH_THREADS);
+        Graph.MSTResult kruskalRes = graph.computeSpanningForest(MSTAlgorithm.KRUSKAL, GRAPH_THREADS);
+        if (MSTStats.ENABLED) {
+            System.err.println("Graph " + graphId + " " + primRes.stats);
+            System.err.println("Graph " + graphId + " " + kruskalRes.stats);
+        }
+        verify(graphId, primRes, MSTAlgorithm.PRIM, kruskalRes);
+        if (VERIFY) {
+            verify(graphId, graph.computeBoruvkaMST(GRAPH_THREADS), MSTAlgorithm.BORUVKA, kruskalRes);
+        }
+        return new OutputResult(graphId, inputStats, primRes, kruskalRes);
+    }
+
+    private static void verify(int graphId, Graph.MSTResult check, MSTAlgorithm checkAlgorithm, Graph.MSTResult result) {
+        if (check.totalCost != result.totalCost) {
+            MSTAlgorithm algorithm = result.algorithm != null ? result.algorithm : MSTAlgorithm.KRUSKAL;
+            System.err.println("Warning: " + checkAlgorithm + " and " + algorithm + " cost mismatch for graph " + graphId);
+        }
+    }
+
+    // --scaling-report <vertices> <edges>: parallel Boruvka per thread count on one random graph, to scaling.csv.
+    // Use millions of edges; smaller graphs finish in a few fork/join grains and cannot show any speedup.
+    private static void scalingReport(int vertices, long edges) throws IOException {
+        CsrGraph csr = new GraphGenerator(GraphGenerator.Topology.RANDOM, vertices, edges, 1000, 42)
+                .generate(BATCH_THREADS).toBuilder().build();
+        writeScalingReport(csr, "scaling.csv");
+    }
+
+    private static void writeScalingReport(CsrGraph csr, String filename) throws IOException {
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        double baseline = 0;
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(maxThreads);
+        try (PrintWriter csv = new PrintWriter(filename)) {
+            csv.println("threads,boruvka_time_ms,speedup,total_cost");
+            for (int threads : threadCounts) {
+                Graph.MSTResult best = null;
+                for (int run = 0; run < 5; run++) {
+                    Graph.MSTResult res = csr.computeBoruvkaMST(threads);
+                    if (best == null || res.executionTimeMs < best.executionTimeMs) {
+                        best = res;
+                    }
+                }
+                if (threads == 1) {
+                    baseline = best.executionTimeMs;
                 }
+                double speedup = best.executionTimeMs > 0 ? baseline / best.executionTimeMs : 1.0;
+                csv.printf("%d,%.2f,%.2f,%d\n", threads, best.executionTimeMs, speedup, best.totalCost);
             }
         }
     }
 
+    @SafeVarargs
     private static <T> List<T> concatLists(List<T>... lists) {
         List<T> all = new ArrayList<>();
         for (List<T> lst : lists) all.addAll(lst);
         return all;
     }
 
-    private static List<GraphInput> generateGraphs(Random rand, int count, int n, int e, int startId) {
+    /** Connected random graphs of n vertices and e distinct edges (weights 1..20), one seed per graph. */
+    public static List<GraphInput> generateGraphs(Random rand, int count, int n, int e, int startId) {
         List<GraphInput> graphs = new ArrayList<>();
         for (int k = 0; k < count; k++) {
-            GraphInput g = new GraphInput();
-            g.id = startId + k;
-            g.nodes = new ArrayList<>();
-            for (int i = 1; i <= n; i++) {
-                g.nodes.add("N" + i);
-            }
-            List<EdgeInput> edges = new ArrayList<>();
-            for (int i = 2; i <= n; i++) {
-                int j = rand.nextInt(i - 1) + 1;
-                int w = 1 + rand.nextInt(20);
-                edges.add(new EdgeInput("N" + j, "N" + i, w));
-            }
-            // Add remaining edges randomly (avoid duplicate or self-loop)
-            Set<String> edgeSet = new HashSet<>();
-            for (EdgeInput ei : edges) {
-                edgeSet.add(ei.from + "-" + ei.to);
-                edgeSet.add(ei.to + "-" + ei.from);
-            }
-            int extra = e - (n - 1);
-            int attempts = 0;
-            while (extra > 0 && attempts < e * 2) {
-                int u = rand.nextInt(n) + 1;
-                int v = rand.nextInt(n) + 1;
-                if (u == v) {
-                    attempts++;
-                    continue;
-                }
-                String key = "N" + u + "-N" + v;
-                if (edgeSet.contains(key)) {
-                    attempts++;
-                    continue;
-                }
-                int w = 1 + rand.nextInt(20);
-                edges.add(new EdgeInput("N" + u, "N" + v, w));
-                edgeSet.add("N" + u + "-N" + v);
-                edgeSet.add("N" + v + "-N" + u);
-                extra--;
-                attempts++;
-            }
-            g.edges = edges;
-            graphs.add(g);
+            GraphGenerator generator = new GraphGenerator(GraphGenerator.Topology.RANDOM, n, e, 20, rand.nextLong());
+            graphs.add(generator.generate(1).toGraphInput(startId + k));
         }
         return graphs;
     }
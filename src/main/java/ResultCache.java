@@ -0,0 +1,339 @@
+package main.java;
+
+import main.java.model_classes.Edge;
+import main.java.model_classes.Graph;
+import main.java.model_classes.MSTAlgorithm;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+
+/**
+ * Two-tier cache of per-graph MST results keyed by {@code CsrGraph.contentHash()}.
+ * The memory tier is an LRU map bounded by an estimate of the bytes its results occupy; the
+ * optional disk tier keeps one small binary file per key in a directory shared across runs, and
+ * deletes the least recently used files once they exceed their own budget.
+ * A hit returns the results computed for the first graph seen with the same content, so costs
+ * are identical while equal-weight ties may resolve to a different but equally minimal tree.
+ * <p>
+ * Configured with {@code -Dmst.cache.mb} (memory budget, default 64, 0 disables the memory tier),
+ * {@code -Dmst.cache.dir} (disk tier, off unless set) and {@code -Dmst.cache.diskMb} (disk budget,
+ * default 1024).
+ */
+public class ResultCache {
+    private static final int MAGIC = 0x4D535452;   // "MSTR"
+    private static final int VERSION = 2;
+    private static final String SUFFIX = ".mstr";
+
+    public static class Entry {
+        public final int vertices;
+        public final int edges;
+        public final Graph.MSTResult prim;
+        public final Graph.MSTResult kruskal;
+        public final Graph.MSTResult auto;   // any of the three may be null
+        public final long bytes;   // estimated heap footprint, charged against the memory budget
+
+        public Entry(int vertices, int edges, Graph.MSTResult prim, Graph.MSTResult kruskal) {
+            this(vertices, edges, prim, kruskal, null);
+        }
+
+        public Entry(int vertices, int edges, Graph.MSTResult prim, Graph.MSTResult kruskal, Graph.MSTResult auto) {
+            this.vertices = vertices;
+            this.edges = edges;
+            this.prim = prim;
+            this.kruskal = kruskal;
+            this.auto = auto;
+            this.bytes = 128 + estimateBytes(prim) + estimateBytes(kruskal) + estimateBytes(auto);
+        }
+    }
+
+    private final long maxBytes;
+    private final Path diskDir;
+    private final long maxDiskBytes;
+    private final Object diskLock = new Object();
+    private long diskBytes;   // guarded by diskLock; other runs sharing the directory are only seen when pruning
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+    private long hits;
+    private long diskHits;
+    private long misses;
+
+    public ResultCache(long maxBytes, Path diskDir) throws IOException {
+        this(maxBytes, diskDir, Long.MAX_VALUE);
+    }
+
+    public ResultCache(long maxBytes, Path diskDir, long maxDiskBytes) throws IOException {
+        this.maxBytes = maxBytes;
+        this.diskDir = diskDir;
+        this.maxDiskBytes = maxDiskBytes;
+        if (diskDir != null) {
+            Files.createDirectories(diskDir);
+            synchronized (diskLock) {
+                prune();
+            }
+        }
+    }
+
+    public static ResultCache fromSystemProperties() throws IOException {
+        String dir = System.getProperty("mst.cache.dir");
+        return new ResultCache(Long.getLong("mst.cache.mb", 64) << 20, dir == null ? null : Paths.get(dir),
+                Long.getLong("mst.cache.diskMb", 1024) << 20);
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0 || diskDir != null;
+    }
+
+    /** Cached results for the key, or null on a miss. Disk hits are promoted to the memory tier. */
+    public Entry get(String key) {
+        synchronized (this) {
+            Entry entry = memory.get(key);
+            if (entry != null) {
+                hits++;
+                return entry;
+            }
+        }
+        Entry entry = diskDir == null ? null : readFromDisk(key);
+        synchronized (this) {
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+            diskHits++;
+            putInMemory(key, entry);
+            return entry;
+        }
+    }
+
+    public void put(String key, Entry entry) {
+        synchronized (this) {
+            putInMemory(key, entry);
+        }
+        if (diskDir != null) {
+            writeToDisk(key, entry);
+        }
+    }
+
+    private void putInMemory(String key, Entry entry) {
+        if (entry.bytes > maxBytes) {
+            return;
+        }
+        Entry previous = memory.put(key, entry);
+        if (previous != null) {
+            usedBytes -= previous.bytes;
+        }
+        usedBytes += entry.bytes;
+        Iterator<Entry> eldest = memory.values().iterator();
+        while (usedBytes > maxBytes) {
+            usedBytes -= eldest.next().bytes;
+            eldest.remove();
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getDiskHits() {
+        return diskHits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /** Bytes of the disk tier's files as of the last write or pruning. */
+    public long getDiskBytes() {
+        synchronized (diskLock) {
+            return diskBytes;
+        }
+    }
+
+    // Rough heap footprint: result object, edge lists, Edge objects with their label strings and
+    // component records. A computed forest shares its Edge objects between the merged tree and the
+    // component lists while one read from disk does not, so each Edge is charged once by identity.
+    private static long estimateBytes(Graph.MSTResult result) {
+        if (result == null) {
+            return 0;
+        }
+        Set<Edge> counted = Collections.newSetFromMap(new IdentityHashMap<>());
+        long bytes = 64 + estimateBytes(result.mstEdges, counted);
+        if (result.components != null) {
+            for (Graph.ComponentResult c : result.components) {
+                bytes += 40 + estimateBytes(c.mstEdges, counted);
+            }
+        }
+        return bytes;
+    }
+
+    private static long estimateBytes(List<Edge> edges, Set<Edge> counted) {
+        long bytes = 24 + 8L * edges.size();
+        for (Edge e : edges) {
+            if (counted.add(e)) {
+                bytes += 48 + 2L * (e.from.length() + e.to.length());
+            }
+        }
+        return bytes;
+    }
+
+    // Unreadable or stale files count as misses; a later put rewrites them.
+    private Entry readFromDisk(String key) {
+        Path file = diskDir.resolve(key + SUFFIX);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            int vertices = in.readInt();
+            int edges = in.readInt();
+            Entry entry = new Entry(vertices, edges, readResult(in), readResult(in), readResult(in));
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));   // pruning order is LRU
+            return entry;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Written to a temporary file first so concurrent runs never see a partial entry.
+    private void writeToDisk(String key, Entry entry) {
+        Path file = diskDir.resolve(key + SUFFIX);
+        try {
+            Path tmp = Files.createTempFile(diskDir, key, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(entry.vertices);
+                out.writeInt(entry.edges);
+                writeResult(out, entry.prim);
+                writeResult(out, entry.kruskal);
+                writeResult(out, entry.auto);
+            } catch (IOException e) {
+                Files.deleteIfExists(tmp);
+                throw e;
+            }
+            long size = Files.size(tmp);
+            long replaced = Files.exists(file) ? Files.size(file) : 0;
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (diskLock) {
+                diskBytes += size - replaced;
+                if (diskBytes > maxDiskBytes) {
+                    prune();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: could not write cache entry " + file + ": " + e.getMessage());
+        }
+    }
+
+    // Rescans the directory, which also picks up files written by other runs, and deletes the least
+    // recently used entries down to 3/4 of the budget so the next writes do not rescan at once.
+    private void prune() throws IOException {
+        List<Path> files = new ArrayList<>();
+        Map<Path, BasicFileAttributes> attributes = new HashMap<>();
+        long total = 0;
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(diskDir, "*" + SUFFIX)) {
+            for (Path file : dir) {
+                try {
+                    BasicFileAttributes a = Files.readAttributes(file, BasicFileAttributes.class);
+                    files.add(file);
+                    attributes.put(file, a);
+                    total += a.size();
+                } catch (NoSuchFileException e) {
+                    // removed by a concurrent run
+                }
+            }
+        }
+        if (total > maxDiskBytes) {
+            files.sort(Comparator.comparing(f -> attributes.get(f).lastModifiedTime()));
+            long target = maxDiskBytes - maxDiskBytes / 4;
+            for (Iterator<Path> it = files.iterator(); it.hasNext() && total > target; ) {
+                Path file = it.next();
+                Files.deleteIfExists(file);
+                total -= attributes.get(file).size();
+            }
+        }
+        diskBytes = total;
+    }
+
+    private static void writeResult(DataOutputStream out, Graph.MSTResult result) throws IOException {
+        out.writeBoolean(result != null);
+        if (result == null) {
+            return;
+        }
+        out.writeUTF(result.algorithm == null ? "" : result.algorithm.name());
+        out.writeInt(result.totalCost);
+        out.writeLong(result.operationsCount);
+        out.writeDouble(result.executionTimeMs);
+        out.writeInt(result.peakHeapSize);
+        writeEdges(out, result.mstEdges);
+        if (result.components == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(result.components.size());
+        for (Graph.ComponentResult c : result.components) {
+            out.writeInt(c.vertices);
+            out.writeInt(c.totalCost);
+            writeEdges(out, c.mstEdges);
+        }
+    }
+
+    private static Graph.MSTResult readResult(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        Graph.MSTResult result = new Graph.MSTResult();
+        String algorithm = in.readUTF();
+        if (!algorithm.isEmpty()) {
+            try {
+                result.algorithm = MSTAlgorithm.valueOf(algorithm);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Unknown algorithm " + algorithm, e);
+            }
+        }
+        result.totalCost = in.readInt();
+        result.operationsCount = in.readLong();
+        result.executionTimeMs = in.readDouble();
+        result.peakHeapSize = in.readInt();
+        result.mstEdges = readEdges(in);
+        int components = in.readInt();
+        if (components >= 0) {
+            result.components = new ArrayList<>(components);
+            for (int i = 0; i < components; i++) {
+                Graph.ComponentResult c = new Graph.ComponentResult();
+                c.vertices = in.readInt();
+                c.totalCost = in.readInt();
+                c.mstEdges = readEdges(in);
+                result.components.add(c);
+            }
+        }
+        return result;
+    }
+
+    private static void writeEdges(DataOutputStream out, List<Edge> edges) throws IOException {
+        out.writeInt(edges.size());
+        for (Edge e : edges) {
+            out.writeUTF(e.from);
+            out.writeUTF(e.to);
+            out.writeInt(e.weight);
+        }
+    }
+
+    private static List<Edge> readEdges(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<Edge> edges = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            edges.add(new Edge(in.readUTF(), in.readUTF(), in.readInt()));
+        }
+        return edges;
+    }
+}
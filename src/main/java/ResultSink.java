@@ -0,0 +1,205 @@
+package main.java;
+
+import main.java.model_classes.Edge;
+import main.java.model_classes.Graph;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes {@code output.json} and {@code summary.csv} incrementally, one graph at a time.
+ * Text goes through large buffers piece by piece (no per-edge string concatenation), and
+ * both files are flushed after every graph so a killed job leaves its finished results on disk.
+ */
+public class ResultSink implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Writer json;
+    private final Writer csv;
+    private final boolean auto;
+    private boolean firstResult = true;
+
+    public ResultSink(String jsonFile, String csvFile) throws IOException {
+        this(jsonFile, csvFile, false);
+    }
+
+    /** With {@code auto}, results carry one selected engine's run instead of Prim and Kruskal. */
+    public ResultSink(String jsonFile, String csvFile, boolean auto) throws IOException {
+        this.json = open(jsonFile);
+        this.csv = open(csvFile);
+        this.auto = auto;
+        json.write("{\n  \"results\": [\n");
+        csv.write(auto
+                ? "graph_id,vertices,edges,algorithm,time_ms,operations,peak_heap,cache\n"
+                : "graph_id,vertices,edges,prim_time_ms,prim_operations,prim_peak_heap,kruskal_time_ms,kruskal_operations,cache\n");
+    }
+
+    private static Writer open(String file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /** Appends the result to both output.json and summary.csv. */
+    public synchronized void writeResult(Main.OutputResult r) throws IOException {
+        if (!firstResult) {
+            json.write(",\n");
+        }
+        firstResult = false;
+        json.write("    {\n      \"graph_id\": ");
+        writeLong(json, r.graph_id);
+        json.write(",\n      \"input_stats\": {\n        \"vertices\": ");
+        writeLong(json, r.input_stats.vertices);
+        json.write(",\n        \"edges\": ");
+        writeLong(json, r.input_stats.edges);
+        json.write("\n      }");
+        if (r.auto != null) {
+            json.write(",\n      \"auto\": ");
+            writeAlgorithm(json, r.auto);
+        } else {
+            json.write(",\n      \"prim\": ");
+            writeAlgorithm(json, r.prim);
+            json.write(",\n      \"kruskal\": ");
+            writeAlgorithm(json, r.kruskal);
+        }
+        json.write("\n    }");
+        json.flush();
+        writeSummary(r);
+    }
+
+    /** Appends the result to summary.csv only. */
+    public synchronized void writeSummary(Main.OutputResult r) throws IOException {
+        writeLong(csv, r.graph_id);
+        csv.write(',');
+        writeLong(csv, r.input_stats.vertices);
+        csv.write(',');
+        writeLong(csv, r.input_stats.edges);
+        csv.write(',');
+        if (auto) {
+            csv.write(r.auto.algorithm.name().toLowerCase(Locale.ROOT));
+            csv.write(',');
+            writeMillis(csv, r.auto.executionTimeMs);
+            csv.write(',');
+            writeLong(csv, r.auto.operationsCount);
+            csv.write(',');
+            writeLong(csv, r.auto.peakHeapSize);
+        } else {
+            writeMillis(csv, r.prim.executionTimeMs);
+            csv.write(',');
+            writeLong(csv, r.prim.operationsCount);
+            csv.write(',');
+            writeLong(csv, r.prim.peakHeapSize);
+            csv.write(',');
+            writeMillis(csv, r.kruskal.executionTimeMs);
+            csv.write(',');
+            writeLong(csv, r.kruskal.operationsCount);
+        }
+        csv.write(',');
+        csv.write(r.cache);
+        csv.write('\n');
+        csv.flush();
+    }
+
+    /** One MST result as a JSON object, in the {@code output.json} layout; also used by {@link MSTServer}. */
+    static void writeAlgorithm(Writer json, Graph.MSTResult res) throws IOException {
+        json.write("{\n");
+        if (res.algorithm != null) {
+            json.write("        \"algorithm\": \"");
+            json.write(res.algorithm.name().toLowerCase(Locale.ROOT));
+            json.write("\",\n");
+        }
+        json.write("        \"mst_edges\": [\n");
+        List<Edge> edges = res.mstEdges;
+        for (int j = 0; j < edges.size(); j++) {
+            Edge e = edges.get(j);
+            json.write("          {\"from\": ");
+            writeString(json, e.from);
+            json.write(", \"to\": ");
+            writeString(json, e.to);
+            json.write(", \"weight\": ");
+            writeLong(json, e.weight);
+            json.write(j < edges.size() - 1 ? "},\n" : "}\n");
+        }
+        json.write("        ],\n        \"total_cost\": ");
+        writeLong(json, res.totalCost);
+        json.write(",\n        \"operations_count\": ");
+        writeLong(json, res.operationsCount);
+        json.write(",\n        \"execution_time_ms\": ");
+        writeMillis(json, res.executionTimeMs);
+        json.write(",\n        \"peak_heap_size\": ");
+        writeLong(json, res.peakHeapSize);
+        if (res.components != null && res.components.size() > 1) {
+            // Disconnected input: one entry per tree of the spanning forest.
+            json.write(",\n        \"components\": [\n");
+            for (int c = 0; c < res.components.size(); c++) {
+                Graph.ComponentResult comp = res.components.get(c);
+                json.write("          {\"vertices\": ");
+                writeLong(json, comp.vertices);
+                json.write(", \"mst_edges\": ");
+                writeLong(json, comp.mstEdges.size());
+                json.write(", \"total_cost\": ");
+                writeLong(json, comp.totalCost);
+                json.write(c < res.components.size() - 1 ? "},\n" : "}\n");
+            }
+            json.write("        ]");
+        }
+        json.write("\n      }");
+    }
+
+    private static void writeLong(Writer out, long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            out.write(Long.toString(value));
+            return;
+        }
+        char[] digits = new char[20];
+        boolean negative = value < 0;
+        if (negative) {
+            value = -value;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        if (negative) {
+            digits[--pos] = '-';
+        }
+        out.write(digits, pos, digits.length - pos);
+    }
+
+    // Same text as printf("%.2f") with a decimal dot regardless of the default locale.
+    private static void writeMillis(Writer out, double ms) throws IOException {
+        long hundredths = Math.round(ms * 100);
+        writeLong(out, hundredths / 100);
+        out.write('.');
+        long fraction = hundredths % 100;
+        out.write((char) ('0' + fraction / 10));
+        out.write((char) ('0' + fraction % 10));
+    }
+
+    private static void writeString(Writer out, String s) throws IOException {
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c < 0x20) {
+                out.write(String.format("\\u%04x", (int) c));
+            } else {
+                out.write(c);
+            }
+        }
+        out.write('"');
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            json.write(firstResult ? "  ]\n}\n" : "\n  ]\n}\n");
+            json.close();
+        } finally {
+            csv.close();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package main.java;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import main.java.model_classes.CsrGraph;
+import main.java.model_classes.GraphSink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pull parser for the {@code {"graphs": [...]}} input format. Each call to {@link #next()}
+ * parses exactly one graph straight into a {@link CsrGraph.Builder}, so peak heap scales with
+ * the largest single graph instead of the whole file and no {@link Main.GraphInput} is built.
+ * {@link #next(GraphSink)} parses into any other sink, such as a streamed binary file.
+ */
+public class StreamingGraphReader implements Closeable {
+    public static class GraphRecord {
+        public final int id;
+        public final CsrGraph.Builder builder;
+
+        GraphRecord(int id, CsrGraph.Builder builder) {
+            this.id = id;
+            this.builder = builder;
+        }
+    }
+
+    private final JsonReader in;
+    private boolean started;
+    private boolean foundGraphs;
+    private boolean finished;
+
+    public StreamingGraphReader(Reader reader) {
+        this.in = new JsonReader(reader);
+    }
+
+    /** True once a top-level {@code "graphs"} array has been seen. */
+    public boolean foundGraphs() {
+        return foundGraphs;
+    }
+
+    /** Returns the next graph, or null when the {@code "graphs"} array is exhausted. */
+    public GraphRecord next() throws IOException {
+        if (!hasNext()) {
+            return null;
+        }
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        return new GraphRecord(readGraph(builder), builder);
+    }
+
+    /** True while the {@code "graphs"} array has another graph. */
+    public boolean hasNext() throws IOException {
+        if (finished) {
+            return false;
+        }
+        if (!started) {
+            started = true;
+            if (!seekGraphs()) {
+                finished = true;
+                return false;
+            }
+        }
+        if (!in.hasNext()) {
+            in.endArray();
+            finished = true;
+            return false;
+        }
+        return true;
+    }
+
+    /** Parses the next graph into the sink and returns its id; call only after {@link #hasNext()}. */
+    public int next(GraphSink sink) throws IOException {
+        if (!hasNext()) {
+            throw new IllegalStateException("No more graphs");
+        }
+        return readGraph(sink);
+    }
+
+    /** Parses a single graph object in the {@link Main.GraphInput} shape, such as an HTTP request body. */
+    public static GraphRecord readOne(Reader reader) throws IOException {
+        StreamingGraphReader single = new StreamingGraphReader(reader);
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        int id = single.readGraph(builder);
+        if (single.in.peek() != JsonToken.END_DOCUMENT) {
+            throw new IOException("Unexpected content after the graph at " + single.in.getPath());
+        }
+        return new GraphRecord(id, builder);
+    }
+
+    private boolean seekGraphs() throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            return false;
+        }
+        in.beginObject();
+        while (in.hasNext()) {
+            if (in.nextName().equals("graphs") && in.peek() == JsonToken.BEGIN_ARRAY) {
+                in.beginArray();
+                foundGraphs = true;
+                return true;
+            }
+            in.skipValue();
+        }
+        return false;
+    }
+
+    // Like the in-memory paths, edges may only name declared nodes. Edges that come before the
+    // "nodes" array are kept as labels and checked once the whole graph object has been read.
+    private int readGraph(GraphSink sink) throws IOException {
+        int id = 0;
+        boolean nodesRead = false;
+        List<PendingEdge> pending = new ArrayList<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    id = in.nextInt();
+                    break;
+                case "nodes":
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        sink.addNode(in.nextString());
+                    }
+                    in.endArray();
+                    nodesRead = true;
+                    break;
+                case "edges":
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        PendingEdge edge = readEdge();
+                        if (nodesRead) {
+                            addEdge(sink, edge);
+                        } else {
+                            pending.add(edge);
+                        }
+                    }
+                    in.endArray();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        for (PendingEdge edge : pending) {
+            addEdge(sink, edge);
+        }
+        return id;
+    }
+
+    private static void addEdge(GraphSink sink, PendingEdge edge) throws IOException {
+        int u = sink.nodeId(edge.from);
+        int v = sink.nodeId(edge.to);
+        if (u < 0 || v < 0) {
+            throw new IllegalArgumentException("Unknown node in edge " + edge.from + "-" + edge.to);
+        }
+        sink.addEdge(u, v, edge.weight);
+    }
+
+    private static final class PendingEdge {
+        final String from;
+        final String to;
+        final int weight;
+
+        PendingEdge(String from, String to, int weight) {
+            this.from = from;
+            this.to = to;
+            this.weight = weight;
+        }
+    }
+
+    private PendingEdge readEdge() throws IOException {
+        String from = null;
+        String to = null;
+        int weight = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "from":
+                    from = in.nextString();
+                    break;
+                case "to":
+                    to = in.nextString();
+                    break;
+                case "weight":
+                    weight = in.nextInt();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        if (from == null || to == null) {
+            throw new IOException("Edge without \"from\"/\"to\" at " + in.getPath());
+        }
+        return new PendingEdge(from, to, weight);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
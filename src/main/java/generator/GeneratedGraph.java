@@ -0,0 +1,115 @@
+package main.java.generator;
+
+import main.java.Main;
+import main.java.model_classes.BinaryGraphFile;
+import main.java.model_classes.CsrGraph;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * Edge list produced by {@link GraphGenerator}: vertices {@code 0..n-1}, labelled {@code N1..Nn}
+ * like every other generated input, with the edges in flat int arrays. It can be handed to the
+ * engines as a builder or written straight to JSON or the binary format.
+ */
+public final class GeneratedGraph {
+    public final int vertices;
+    private final int[] from;
+    private final int[] to;
+    private final int[] weight;
+
+    GeneratedGraph(int vertices, int[] from, int[] to, int[] weight) {
+        this.vertices = vertices;
+        this.from = from;
+        this.to = to;
+        this.weight = weight;
+    }
+
+    public int getEdgeCount() {
+        return from.length;
+    }
+
+    public int getFrom(int edge) {
+        return from[edge];
+    }
+
+    public int getTo(int edge) {
+        return to[edge];
+    }
+
+    public int getWeight(int edge) {
+        return weight[edge];
+    }
+
+    public static String label(int vertex) {
+        return "N" + (vertex + 1);
+    }
+
+    public CsrGraph.Builder toBuilder() {
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        for (int v = 0; v < vertices; v++) {
+            builder.addNode(label(v));
+        }
+        for (int e = 0; e < from.length; e++) {
+            builder.addEdge(from[e], to[e], weight[e]);
+        }
+        return builder;
+    }
+
+    public Main.GraphInput toGraphInput(int id) {
+        Main.GraphInput g = new Main.GraphInput();
+        g.id = id;
+        g.nodes = new ArrayList<>(vertices);
+        for (int v = 0; v < vertices; v++) {
+            g.nodes.add(label(v));
+        }
+        // Edges share the node label Strings instead of formatting two new ones per edge.
+        g.edges = new ArrayList<>(from.length);
+        for (int e = 0; e < from.length; e++) {
+            g.edges.add(new Main.EdgeInput(g.nodes.get(from[e]), g.nodes.get(to[e]), weight[e]));
+        }
+        return g;
+    }
+
+    /** Writes a single-graph {@code input.json} without building any per-edge objects. */
+    public void writeJson(Path file, int id) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), 1 << 20)) {
+            out.write("{\n  \"graphs\": [\n    {\n      \"id\": ");
+            out.write(Integer.toString(id));
+            out.write(",\n      \"nodes\": [");
+            for (int v = 0; v < vertices; v++) {
+                out.write(v == 0 ? "\"N" : ", \"N");
+                out.write(Integer.toString(v + 1));
+                out.write('"');
+            }
+            out.write("],\n      \"edges\": [\n");
+            for (int e = 0; e < from.length; e++) {
+                out.write("        {\"from\": \"N");
+                out.write(Integer.toString(from[e] + 1));
+                out.write("\", \"to\": \"N");
+                out.write(Integer.toString(to[e] + 1));
+                out.write("\", \"weight\": ");
+                out.write(Integer.toString(weight[e]));
+                out.write(e < from.length - 1 ? "},\n" : "}\n");
+            }
+            out.write("      ]\n    }\n  ]\n}\n");
+        }
+    }
+
+    /** Streams the edge columns into a {@code .mstg} file; see {@link BinaryGraphFile.Writer#beginGraph}. */
+    public void writeBinary(Path file, int id, long memoryBudgetBytes) throws IOException {
+        try (BinaryGraphFile.Writer writer = new BinaryGraphFile.Writer(file);
+             BinaryGraphFile.Writer.StreamedGraph graph = writer.beginGraph(memoryBudgetBytes)) {
+            for (int v = 0; v < vertices; v++) {
+                graph.addNode(label(v));
+            }
+            for (int e = 0; e < from.length; e++) {
+                graph.addEdge(from[e], to[e], weight[e]);
+            }
+            graph.commit(id);
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package main.java.generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Synthetic graph generator for test and benchmark inputs up to tens of millions of edges.
+ * <ul>
+ *   <li>RANDOM: a random spanning tree plus exactly {@code edges - (V-1)} further distinct
+ *       edges drawn uniformly from the remaining vertex pairs with Floyd's sampling.</li>
+ *   <li>GRID: road-like square lattice; the edge budget is ignored.</li>
+ *   <li>GEOMETRIC: uniform points in the unit square joined when closer than the radius that
+ *       gives the requested average degree; weights grow with distance. Edge count is approximate
+ *       and the graph may be disconnected.</li>
+ *   <li>POWER_LAW: Barabasi-Albert preferential attachment with {@code edges / V} links per
+ *       new vertex, giving a heavy-tailed degree distribution.</li>
+ *   <li>COMPLETE: every pair; the edge budget is ignored.</li>
+ * </ul>
+ * Work is cut into a fixed number of chunks, each with its own {@link SplittableRandom} split off
+ * the seed in chunk order, so the output depends on the seed only and not on the thread count.
+ * Duplicate detection uses primitive long pair keys; no strings or boxed values are created.
+ */
+public final class GraphGenerator {
+    public enum Topology { RANDOM, GRID, GEOMETRIC, POWER_LAW, COMPLETE }
+
+    private static final int CHUNKS = 64;
+
+    private final Topology topology;
+    private final int vertices;
+    private final long edges;
+    private final int maxWeight;
+    private final long seed;
+
+    /** Weights are drawn from {@code 1..maxWeight}. */
+    public GraphGenerator(Topology topology, int vertices, long edges, int maxWeight, long seed) {
+        if (vertices < 0 || edges < 0 || maxWeight < 1) {
+            throw new IllegalArgumentException("vertices and edges must be non-negative and maxWeight positive");
+        }
+        this.topology = topology;
+        this.vertices = vertices;
+        this.edges = edges;
+        this.maxWeight = maxWeight;
+        this.seed = seed;
+    }
+
+    public GeneratedGraph generate() {
+        return generate(Runtime.getRuntime().availableProcessors());
+    }
+
+    public GeneratedGraph generate(int parallelism) {
+        SplittableRandom root = new SplittableRandom(seed);
+        switch (topology) {
+            case RANDOM:
+                return random(root, parallelism);
+            case GRID:
+                return grid(root, parallelism);
+            case GEOMETRIC:
+                return geometric(root, parallelism);
+            case POWER_LAW:
+                return powerLaw(root);
+            case COMPLETE:
+                return complete(root, parallelism);
+            default:
+                throw new IllegalArgumentException("Unsupported topology: " + topology);
+        }
+    }
+
+    // Growable edge buffer filled by one chunk.
+    private static final class Chunk {
+        int[] from = new int[16];
+        int[] to = new int[16];
+        int[] weight = new int[16];
+        int count;
+
+        void add(int u, int v, int w) {
+            if (count == from.length) {
+                int capacity = count * 2;
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                weight = Arrays.copyOf(weight, capacity);
+            }
+            from[count] = u;
+            to[count] = v;
+            weight[count] = w;
+            count++;
+        }
+    }
+
+    private interface ChunkBody {
+        void run(int chunk, SplittableRandom rng, Chunk out);
+    }
+
+    // Runs body once per chunk, on a pool when parallelism > 1; the array keeps chunk order.
+    private static Chunk[] runChunks(SplittableRandom root, int parallelism, ChunkBody body) {
+        SplittableRandom[] rngs = new SplittableRandom[CHUNKS];
+        Chunk[] chunks = new Chunk[CHUNKS];
+        for (int c = 0; c < CHUNKS; c++) {
+            rngs[c] = root.split();
+            chunks[c] = new Chunk();
+        }
+        if (parallelism <= 1) {
+            for (int c = 0; c < CHUNKS; c++) {
+                body.run(c, rngs[c], chunks[c]);
+            }
+            return chunks;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < CHUNKS; c++) {
+                int chunk = c;
+                futures.add(pool.submit(() -> body.run(chunk, rngs[chunk], chunks[chunk])));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Graph generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Graph generation failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return chunks;
+    }
+
+    private GeneratedGraph concat(int n, Chunk... parts) {
+        long total = 0;
+        for (Chunk c : parts) {
+            total += c.count;
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many edges: " + total);
+        }
+        int[] from = new int[(int) total];
+        int[] to = new int[(int) total];
+        int[] weight = new int[(int) total];
+        int pos = 0;
+        for (Chunk c : parts) {
+            System.arraycopy(c.from, 0, from, pos, c.count);
+            System.arraycopy(c.to, 0, to, pos, c.count);
+            System.arraycopy(c.weight, 0, weight, pos, c.count);
+            pos += c.count;
+        }
+        return new GeneratedGraph(n, from, to, weight);
+    }
+
+    private int nextWeight(SplittableRandom rng) {
+        return 1 + rng.nextInt(maxWeight);
+    }
+
+    // Pairs u < v are numbered row by row: row u starts at u*n - u*(u+1)/2.
+    private static long rowStart(long n, long u) {
+        return u * n - u * (u + 1) / 2;
+    }
+
+    private static long pairIndex(long n, int u, int v) {
+        int lo = Math.min(u, v);
+        int hi = Math.max(u, v);
+        return rowStart(n, lo) + (hi - lo - 1);
+    }
+
+    private static int pairRow(long n, long index) {
+        double b = 2.0 * n - 1;
+        long u = (long) ((b - Math.sqrt(b * b - 8.0 * index)) / 2);
+        u = Math.max(0, Math.min(u, n - 2));
+        while (u > 0 && rowStart(n, u) > index) {
+            u--;
+        }
+        while (u + 1 < n - 1 && rowStart(n, u + 1) <= index) {
+            u++;
+        }
+        return (int) u;
+    }
+
+    private GeneratedGraph random(SplittableRandom root, int parallelism) {
+        int n = vertices;
+        if (n < 2) {
+            return concat(n);
+        }
+        long pairs = (long) n * (n - 1) / 2;
+        long target = Math.max(n - 1, Math.min(edges, pairs));
+        long extra = target - (n - 1);
+
+        // Random spanning tree: vertex i hangs off a uniformly chosen earlier vertex.
+        Chunk[] tree = runChunks(root, parallelism, (c, rng, out) -> {
+            int lo = 1 + (int) ((long) (n - 1) * c / CHUNKS);
+            int hi = 1 + (int) ((long) (n - 1) * (c + 1) / CHUNKS);
+            for (int i = lo; i < hi; i++) {
+                out.add(rng.nextInt(i), i, nextWeight(rng));
+            }
+        });
+        if (extra == 0) {
+            return concat(n, tree);
+        }
+
+        // The pair index space is cut into equal segments, each sampled independently with a share
+        // of the extra edges proportional to the pairs it has left after the tree edges.
+        LongHashSet treeKeys = new LongHashSet(n - 1);
+        long[] treeInSegment = new long[CHUNKS];
+        for (Chunk c : tree) {
+            for (int i = 0; i < c.count; i++) {
+                long key = pairIndex(n, c.from[i], c.to[i]);
+                treeKeys.add(key);
+                treeInSegment[segmentOf(key, pairs)]++;
+            }
+        }
+        long[] quota = new long[CHUNKS];
+        long[] available = new long[CHUNKS];
+        long totalAvailable = pairs - (n - 1);
+        long assigned = 0;
+        for (int s = 0; s < CHUNKS; s++) {
+            available[s] = segmentStart(s + 1, pairs) - segmentStart(s, pairs) - treeInSegment[s];
+            quota[s] = Math.min(available[s], (long) (extra * ((double) available[s] / totalAvailable)));
+            assigned += quota[s];
+        }
+        for (int s = 0; assigned < extra; s = (s + 1) % CHUNKS) {
+            if (quota[s] < available[s]) {
+                quota[s]++;
+                assigned++;
+            }
+        }
+
+        Chunk[] sampled = runChunks(root, parallelism, (s, rng, out) -> {
+            long start = segmentStart(s, pairs);
+            long len = segmentStart(s + 1, pairs) - start;
+            long k = quota[s];
+            if (k == 0) {
+                return;
+            }
+            // Floyd's algorithm: exactly k distinct picks with k set insertions and no retries,
+            // except when a pick lands on a tree edge.
+            LongHashSet chosen = new LongHashSet((int) Math.min(k, Integer.MAX_VALUE / 4));
+            for (long j = len - k; j < len; j++) {
+                long pick = rng.nextLong(j + 1);
+                if (chosen.contains(pick) || treeKeys.contains(start + pick)) {
+                    pick = j;
+                }
+                while (chosen.contains(pick) || treeKeys.contains(start + pick)) {
+                    pick = rng.nextLong(len);
+                }
+                chosen.add(pick);
+                long index = start + pick;
+                int row = pairRow(n, index);
+                int v = (int) (index - rowStart(n, row)) + row + 1;
+                out.add(row, v, nextWeight(rng));
+            }
+        });
+        Chunk[] all = new Chunk[2 * CHUNKS];
+        System.arraycopy(tree, 0, all, 0, CHUNKS);
+        System.arraycopy(sampled, 0, all, CHUNKS, CHUNKS);
+        return concat(n, all);
+    }
+
+    private static long segmentStart(int segment, long pairs) {
+        // pairs * segment / CHUNKS without overflow for pairs up to 2^57
+        return pairs / CHUNKS * segment + pairs % CHUNKS * segment / CHUNKS;
+    }
+
+    private static int segmentOf(long key, long pairs) {
+        int s = (int) (key / Math.max(1, pairs / CHUNKS));
+        s = Math.min(s, CHUNKS - 1);
+        while (s > 0 && segmentStart(s, pairs) > key) {
+            s--;
+        }
+        while (s + 1 < CHUNKS && segmentStart(s + 1, pairs) <= key) {
+            s++;
+        }
+        return s;
+    }
+
+    private GeneratedGraph grid(SplittableRandom root, int parallelism) {
+        int side = (int) Math.ceil(Math.sqrt(vertices));
+        Chunk[] rows = runChunks(root, parallelism, (c, rng, out) -> {
+            for (int r = (int) ((long) side * c / CHUNKS); r < (int) ((long) side * (c + 1) / CHUNKS); r++) {
+                for (int col = 0; col < side; col++) {
+                    int u = r * side + col;
+                    if (col + 1 < side) {
+                        out.add(u, u + 1, nextWeight(rng));
+                    }
+                    if (r + 1 < side) {
+                        out.add(u, u + side, nextWeight(rng));
+                    }
+                }
+            }
+        });
+        return concat(side * side, rows);
+    }
+
+    private GeneratedGraph complete(SplittableRandom root, int parallelism) {
+        int n = vertices;
+        // Rows are dealt round-robin so every chunk gets a similar number of pairs.
+        Chunk[] rows = runChunks(root, parallelism, (c, rng, out) -> {
+            for (int u = c; u < n; u += CHUNKS) {
+                for (int v = u + 1; v < n; v++) {
+                    out.add(u, v, nextWeight(rng));
+                }
+            }
+        });
+        return concat(n, rows);
+    }
+
+    private GeneratedGraph geometric(SplittableRandom root, int parallelism) {
+        int n = vertices;
+        if (n < 2) {
+            return concat(n);
+        }
+        double degree = 2.0 * edges / n;
+        double radius = Math.min(Math.sqrt(2), Math.sqrt(degree / (Math.PI * n)));
+        double[] x = new double[n];
+        double[] y = new double[n];
+        runChunks(root, parallelism, (c, rng, out) -> {
+            for (int i = (int) ((long) n * c / CHUNKS); i < (int) ((long) n * (c + 1) / CHUNKS); i++) {
+                x[i] = rng.nextDouble();
+                y[i] = rng.nextDouble();
+            }
+        });
+        // Bucket the points into square cells of side >= radius; neighbours are in the 3x3 block.
+        int cells = (int) Math.max(1, Math.min(Math.floor(1 / radius), Math.sqrt(n)));
+        int[] cellStart = new int[cells * cells + 1];
+        int[] cellOf = new int[n];
+        for (int i = 0; i < n; i++) {
+            cellOf[i] = cell(x[i], cells) * cells + cell(y[i], cells);
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < cells * cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] byCell = new int[n];
+        int[] next = Arrays.copyOf(cellStart, cells * cells);
+        for (int i = 0; i < n; i++) {
+            byCell[next[cellOf[i]]++] = i;
+        }
+        double r2 = radius * radius;
+        Chunk[] parts = runChunks(root, parallelism, (c, rng, out) -> {
+            for (int u = (int) ((long) n * c / CHUNKS); u < (int) ((long) n * (c + 1) / CHUNKS); u++) {
+                int cx = cellOf[u] / cells;
+                int cy = cellOf[u] % cells;
+                for (int dx = Math.max(0, cx - 1); dx <= Math.min(cells - 1, cx + 1); dx++) {
+                    for (int dy = Math.max(0, cy - 1); dy <= Math.min(cells - 1, cy + 1); dy++) {
+                        int cell = dx * cells + dy;
+                        for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                            int v = byCell[k];
+                            if (v <= u) {
+                                continue;
+                            }
+                            double ddx = x[u] - x[v];
+                            double ddy = y[u] - y[v];
+                            double d2 = ddx * ddx + ddy * ddy;
+                            if (d2 <= r2) {
+                                out.add(u, v, 1 + (int) (Math.sqrt(d2 / r2) * (maxWeight - 1)));
+                            }
+                        }
+                    }
+                }
+            }
+        });
+        return concat(n, parts);
+    }
+
+    private static int cell(double coordinate, int cells) {
+        return Math.min(cells - 1, (int) (coordinate * cells));
+    }
+
+    // Preferential attachment is inherently sequential: each vertex depends on all earlier degrees.
+    private GeneratedGraph powerLaw(SplittableRandom root) {
+        int n = vertices;
+        int links = (int) Math.max(1, Math.min(n - 1, edges / Math.max(1, n)));
+        SplittableRandom rng = root.split();
+        Chunk out = new Chunk();
+        int core = Math.min(n, links + 1);
+        for (int u = 0; u < core; u++) {
+            for (int v = u + 1; v < core; v++) {
+                out.add(u, v, nextWeight(rng));
+            }
+        }
+        // Every edge endpoint is listed once, so a uniform pick from the list is degree-proportional.
+        long capacity = 2L * out.count + 2L * links * Math.max(0, n - core);
+        int[] endpoints = new int[(int) Math.min(capacity, Integer.MAX_VALUE - 8)];
+        int endpointCount = 0;
+        for (int e = 0; e < out.count; e++) {
+            endpoints[endpointCount++] = out.from[e];
+            endpoints[endpointCount++] = out.to[e];
+        }
+        int[] picked = new int[links];
+        for (int v = core; v < n; v++) {
+            int count = 0;
+            while (count < links) {
+                int target = endpointCount == 0 ? rng.nextInt(v) : endpoints[rng.nextInt(endpointCount)];
+                boolean duplicate = false;
+                for (int i = 0; i < count; i++) {
+                    duplicate |= picked[i] == target;
+                }
+                if (!duplicate) {
+                    picked[count++] = target;
+                }
+            }
+            for (int i = 0; i < links; i++) {
+                out.add(picked[i], v, nextWeight(rng));
+                endpoints[endpointCount++] = picked[i];
+                endpoints[endpointCount++] = v;
+            }
+        }
+        return concat(n, out);
+    }
+}
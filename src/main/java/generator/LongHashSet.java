@@ -0,0 +1,75 @@
+package main.java.generator;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of non-negative longs with linear probing. Keys are stored inline in one
+ * long[] (no boxing, no per-entry objects), which is what keeps duplicate detection for
+ * tens of millions of edge keys within a few hundred megabytes.
+ */
+final class LongHashSet {
+    private static final long EMPTY = -1L;
+
+    private long[] table;
+    private int mask;
+    private int size;
+
+    LongHashSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+        table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        mask = capacity - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(long key) {
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long k = table[slot];
+            if (k == key) {
+                return true;
+            }
+            if (k == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    /** Adds the key; returns false if it was already present. */
+    boolean add(long key) {
+        if (2 * (size + 1) > table.length) {
+            grow();
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long k = table[slot];
+            if (k == key) {
+                return false;
+            }
+            if (k == EMPTY) {
+                table[slot] = key;
+                size++;
+                return true;
+            }
+        }
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] old = table;
+        table = new long[old.length * 2];
+        Arrays.fill(table, EMPTY);
+        mask = table.length - 1;
+        size = 0;
+        for (long k : old) {
+            if (k != EMPTY) {
+                add(k);
+            }
+        }
+    }
+}
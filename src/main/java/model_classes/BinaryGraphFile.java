@@ -0,0 +1,525 @@
+package main.java.model_classes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Compact binary container for {@link CsrGraph}s ({@code .mstg}).
+ * <pre>
+ * file   := magic:int version:int graphCount:int graph*
+ * graph  := id:int n:int m:int labelBytes:int
+ *           labelOffsets:int[n+1] labelData:byte[labelBytes] (padded to 4 bytes)
+ *           from:int[m] to:int[m] weight:int[m]
+ *           offsets:int[n+1] adjTarget:int[2m] adjWeight:int[2m] adjEdge:int[2m]
+ * </pre>
+ * All values are little-endian. The CSR arrays are stored as well as the edge columns, so
+ * loading is a bulk copy out of memory-mapped regions with no parsing or adjacency rebuild.
+ * Graphs larger than the heap are written through {@link Writer#beginGraph}, which never holds
+ * more than the labels, O(V) counters and a bounded adjacency buffer.
+ */
+public final class BinaryGraphFile {
+    public static final String EXTENSION = ".mstg";
+    private static final int MAGIC = 0x4D535447; // "MSTG"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+    // Regions are mapped at most this many bytes at a time (a mapping is limited to 2 GiB).
+    private static final long MAX_MAP_BYTES = 1L << 30;
+    private static final long MIN_MAP_BYTES = 1L << 16;
+    private static final int STREAM_WINDOW_INTS = 1 << 20;
+    // Streamed graphs: edges read back from the spill files at a time, and the smallest adjacency pass.
+    private static final int SPILL_CHUNK_INTS = 1 << 16;
+    private static final int MIN_PASS_SLOTS = 1 << 10;
+    // The CSR arrays hold 2m entries, which must fit an int index.
+    private static final int MAX_EDGES = (Integer.MAX_VALUE - 8) / 2;
+
+    private BinaryGraphFile() {
+    }
+
+    public static class Entry {
+        public final int id;
+        public final CsrGraph graph;
+
+        Entry(int id, CsrGraph graph) {
+            this.id = id;
+            this.graph = graph;
+        }
+    }
+
+    public static class StreamedEntry {
+        public final int id;
+        public final String[] labels;
+        public final int edgeCount;
+        public final ExternalKruskal.EdgeSource edges;
+
+        StreamedEntry(int id, String[] labels, int edgeCount, ExternalKruskal.EdgeSource edges) {
+            this.id = id;
+            this.labels = labels;
+            this.edgeCount = edgeCount;
+            this.edges = edges;
+        }
+    }
+
+    public static class Writer implements Closeable {
+        private final Path file;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private int graphCount;
+
+        public Writer(Path file) throws IOException {
+            this.file = file;
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(0);
+        }
+
+        public void write(int id, CsrGraph g) throws IOException {
+            writeHead(id, g.labels, g.edgeFrom.length);
+            putInts(g.edgeFrom);
+            putInts(g.edgeTo);
+            putInts(g.edgeWeight);
+            putInts(g.offsets);
+            putInts(g.adjTarget);
+            putInts(g.adjWeight);
+            putInts(g.adjEdge);
+            graphCount++;
+        }
+
+        /**
+         * Starts a graph whose nodes and edges are streamed in, e.g. by {@code StreamingGraphReader}
+         * or the generator, without building a {@link CsrGraph}. Edge columns are spilled to
+         * temporary files next to the output until {@link StreamedGraph#commit}; the adjacency
+         * arrays are then filled in passes of at most {@code memoryBudgetBytes} each.
+         */
+        public StreamedGraph beginGraph(long memoryBudgetBytes) throws IOException {
+            return new StreamedGraph(memoryBudgetBytes);
+        }
+
+        private void writeHead(int id, String[] labels, int m) throws IOException {
+            int n = labels.length;
+            byte[][] encoded = new byte[n][];
+            int[] labelOffsets = new int[n + 1];
+            for (int i = 0; i < n; i++) {
+                encoded[i] = labels[i].getBytes(StandardCharsets.UTF_8);
+                labelOffsets[i + 1] = labelOffsets[i] + encoded[i].length;
+            }
+            int labelBytes = labelOffsets[n];
+            putInt(id);
+            putInt(n);
+            putInt(m);
+            putInt(labelBytes);
+            putInts(labelOffsets);
+            for (byte[] label : encoded) {
+                putBytes(label);
+            }
+            for (int pad = padding(labelBytes); pad > 0; pad--) {
+                ensure(1);
+                buffer.put((byte) 0);
+            }
+        }
+
+        /**
+         * One graph being streamed into the file. Closing it without {@link #commit} drops the
+         * graph; either way the spill files are deleted.
+         */
+        public final class StreamedGraph implements GraphSink, Closeable {
+            private final long memoryBudgetBytes;
+            private final SymbolTable symbols = new SymbolTable();
+            private final Path[] spillFiles = new Path[3];          // from, to, weight columns
+            private final FileChannel[] spills = new FileChannel[3];
+            private final ByteBuffer[] pending = new ByteBuffer[3];
+            private final ByteBuffer scratch = ByteBuffer.allocate(4 * SPILL_CHUNK_INTS).order(ByteOrder.LITTLE_ENDIAN);
+            private int[] degree = new int[16];
+            private int edgeCount;
+
+            StreamedGraph(long memoryBudgetBytes) throws IOException {
+                this.memoryBudgetBytes = memoryBudgetBytes;
+                Path dir = file.toAbsolutePath().getParent();
+                try {
+                    for (int c = 0; c < 3; c++) {
+                        spillFiles[c] = Files.createTempFile(dir, "mstg-column", ".bin");
+                        spills[c] = FileChannel.open(spillFiles[c], StandardOpenOption.READ, StandardOpenOption.WRITE);
+                        pending[c] = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+                    }
+                } catch (IOException e) {
+                    close();
+                    throw e;
+                }
+            }
+
+            @Override
+            public int addNode(String label) {
+                return symbols.intern(label);
+            }
+
+            @Override
+            public int nodeId(String label) {
+                return symbols.id(label);
+            }
+
+            @Override
+            public void addEdge(int u, int v, int weight) throws IOException {
+                if (edgeCount == MAX_EDGES) {
+                    throw new IOException("A graph may have at most " + MAX_EDGES + " edges");
+                }
+                int top = Math.max(u, v);
+                if (top >= degree.length) {
+                    degree = Arrays.copyOf(degree, Math.max(top + 1, degree.length * 2));
+                }
+                degree[u]++;
+                degree[v]++;
+                append(0, u);
+                append(1, v);
+                append(2, weight);
+                edgeCount++;
+            }
+
+            private void append(int column, int value) throws IOException {
+                ByteBuffer out = pending[column];
+                if (!out.hasRemaining()) {
+                    flush(column);
+                }
+                out.putInt(value);
+            }
+
+            private void flush(int column) throws IOException {
+                ByteBuffer out = pending[column];
+                out.flip();
+                while (out.hasRemaining()) {
+                    spills[column].write(out);
+                }
+                out.clear();
+            }
+
+            /** Appends the graph to the file under the given id. */
+            public void commit(int id) throws IOException {
+                for (int c = 0; c < 3; c++) {
+                    flush(c);
+                }
+                int n = symbols.size();
+                int m = edgeCount;
+                int[] offsets = new int[n + 1];
+                for (int u = 0; u < n; u++) {
+                    offsets[u + 1] = offsets[u] + (u < degree.length ? degree[u] : 0);
+                }
+                writeHead(id, symbols.toArray(), m);
+                drain();
+                for (FileChannel spill : spills) {
+                    long size = spill.size();
+                    for (long done = 0; done < size; ) {
+                        done += spill.transferTo(done, size - done, channel);
+                    }
+                }
+                putInts(offsets);
+                drain();
+                long adjacency = channel.position();
+                writeAdjacency(adjacency, offsets, m);
+                channel.position(adjacency + 24L * m);
+                graphCount++;
+            }
+
+            // Same slot order as the CsrGraph constructor: edges in id order, each at both endpoints.
+            // Every pass rescans the spilled columns and keeps only the slots in its own range.
+            private void writeAdjacency(long base, int[] offsets, int m) throws IOException {
+                long slots = 2L * m;
+                int passSlots = (int) Math.max(MIN_PASS_SLOTS, Math.min(slots, memoryBudgetBytes / 12));
+                int[] target = new int[passSlots];
+                int[] weight = new int[passSlots];
+                int[] edge = new int[passSlots];
+                int[][] chunk = new int[3][SPILL_CHUNK_INTS];
+                for (long lo = 0; lo < slots; lo += passSlots) {
+                    int count = (int) Math.min(passSlots, slots - lo);
+                    int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+                    for (int first = 0; first < m; first += SPILL_CHUNK_INTS) {
+                        int size = Math.min(SPILL_CHUNK_INTS, m - first);
+                        for (int c = 0; c < 3; c++) {
+                            readSpill(c, first, size, chunk[c]);
+                        }
+                        for (int i = 0; i < size; i++) {
+                            int u = chunk[0][i];
+                            int v = chunk[1][i];
+                            long slot = next[u]++ - lo;
+                            if (slot >= 0 && slot < count) {
+                                target[(int) slot] = v;
+                                weight[(int) slot] = chunk[2][i];
+                                edge[(int) slot] = first + i;
+                            }
+                            slot = next[v]++ - lo;
+                            if (slot >= 0 && slot < count) {
+                                target[(int) slot] = u;
+                                weight[(int) slot] = chunk[2][i];
+                                edge[(int) slot] = first + i;
+                            }
+                        }
+                    }
+                    writeAt(base + 4 * lo, target, count);
+                    writeAt(base + 4 * (slots + lo), weight, count);
+                    writeAt(base + 4 * (2 * slots + lo), edge, count);
+                }
+            }
+
+            private void readSpill(int column, int first, int count, int[] into) throws IOException {
+                ByteBuffer in = scratch;
+                in.clear().limit(4 * count);
+                long position = 4L * first;
+                while (in.hasRemaining()) {
+                    if (spills[column].read(in, position + in.position()) < 0) {
+                        throw new IOException("Truncated spill file " + spillFiles[column]);
+                    }
+                }
+                in.flip();
+                in.asIntBuffer().get(into, 0, count);
+            }
+
+            private void writeAt(long position, int[] values, int count) throws IOException {
+                ByteBuffer out = scratch;
+                for (int done = 0; done < count; ) {
+                    int size = Math.min(out.capacity() / 4, count - done);
+                    out.clear();
+                    out.asIntBuffer().put(values, done, size);
+                    out.limit(4 * size);
+                    long at = position + 4L * done;
+                    while (out.hasRemaining()) {
+                        at += channel.write(out, at);
+                    }
+                    done += size;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                for (int c = 0; c < 3; c++) {
+                    if (spills[c] != null) {
+                        spills[c].close();
+                    }
+                    if (spillFiles[c] != null) {
+                        Files.deleteIfExists(spillFiles[c]);
+                    }
+                }
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                drain();
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        private void putInts(int[] values) throws IOException {
+            int pos = 0;
+            while (pos < values.length) {
+                ensure(4);
+                int count = Math.min(buffer.remaining() / 4, values.length - pos);
+                buffer.asIntBuffer().put(values, pos, count);
+                buffer.position(buffer.position() + count * 4);
+                pos += count;
+            }
+        }
+
+        private void putBytes(byte[] values) throws IOException {
+            int pos = 0;
+            while (pos < values.length) {
+                ensure(1);
+                int count = Math.min(buffer.remaining(), values.length - pos);
+                buffer.put(values, pos, count);
+                pos += count;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+                ByteBuffer count = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, graphCount);
+                channel.write(count, 8);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    public static class Reader implements Closeable {
+        private final FileChannel channel;
+        private final int graphCount;
+        private int graphsRead;
+        private long position = HEADER_BYTES;
+        private int vertexCount;    // header fields of the graph being read
+        private int edgeCount;
+        private int labelBytes;
+
+        public Reader(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            if (channel.size() < HEADER_BYTES || map(0, HEADER_BYTES).getInt() != MAGIC) {
+                channel.close();
+                throw new IOException("Not a binary graph file: " + file);
+            }
+            ByteBuffer header = map(4, HEADER_BYTES - 4);
+            int version = header.getInt();
+            if (version != VERSION) {
+                channel.close();
+                throw new IOException("Unsupported binary graph version " + version + " in " + file);
+            }
+            graphCount = header.getInt();
+        }
+
+        public int getGraphCount() {
+            return graphCount;
+        }
+
+        /** Returns the next graph in the file, or null after the last one. */
+        public Entry next() throws IOException {
+            if (graphsRead == graphCount) {
+                return null;
+            }
+            int id = readHeader();
+            String[] labels = readLabels();
+            int m = edgeCount;
+            int n = labels.length;
+            int[] from = readInts(m);
+            int[] to = readInts(m);
+            int[] weight = readInts(m);
+            int[] offsets = readInts(n + 1);
+            int[] adjTarget = readInts(2 * m);
+            int[] adjWeight = readInts(2 * m);
+            int[] adjEdge = readInts(2 * m);
+            graphsRead++;
+            return new Entry(id, new CsrGraph(labels, from, to, weight, offsets, adjTarget, adjWeight, adjEdge));
+        }
+
+        /**
+         * Returns the next graph with only its labels loaded; the from/to/weight columns are read
+         * on demand through the returned source in windows of the mapped file. The source stays
+         * usable after further calls to this reader, until it is closed.
+         */
+        public StreamedEntry nextStreamed() throws IOException {
+            if (graphsRead == graphCount) {
+                return null;
+            }
+            int id = readHeader();
+            String[] labels = readLabels();
+            long m = edgeCount;
+            long columns = position;
+            position += 12 * m + 4L * (labels.length + 1) + 24 * m;
+            graphsRead++;
+            return new StreamedEntry(id, labels, edgeCount, new ColumnSource(columns, edgeCount));
+        }
+
+        private int readHeader() throws IOException {
+            ByteBuffer head = map(position, 16);
+            int id = head.getInt();
+            vertexCount = head.getInt();
+            edgeCount = head.getInt();
+            labelBytes = head.getInt();
+            position += 16;
+            return id;
+        }
+
+        private String[] readLabels() throws IOException {
+            int n = vertexCount;
+            int[] labelOffsets = readInts(n + 1);
+            String[] labels = new String[n];
+            if (n > 0) {
+                ByteBuffer data = map(position, labelBytes);
+                byte[] bytes = new byte[labelBytes];
+                data.get(bytes);
+                for (int i = 0; i < n; i++) {
+                    labels[i] = new String(bytes, labelOffsets[i], labelOffsets[i + 1] - labelOffsets[i],
+                            StandardCharsets.UTF_8);
+                }
+            }
+            position += labelBytes + padding(labelBytes);
+            return labels;
+        }
+
+        private final class ColumnSource implements ExternalKruskal.EdgeSource {
+            private final long fromPos;
+            private final long toPos;
+            private final long weightPos;
+            private final int edges;
+            private int next;
+
+            ColumnSource(long columns, int edges) {
+                this.fromPos = columns;
+                this.toPos = columns + 4L * edges;
+                this.weightPos = columns + 8L * edges;
+                this.edges = edges;
+            }
+
+            @Override
+            public int read(int[] from, int[] to, int[] weight, int offset, int max) throws IOException {
+                int count = Math.min(Math.min(max, edges - next), STREAM_WINDOW_INTS);
+                if (count <= 0) {
+                    return 0;
+                }
+                map(fromPos + 4L * next, 4L * count).asIntBuffer().get(from, offset, count);
+                map(toPos + 4L * next, 4L * count).asIntBuffer().get(to, offset, count);
+                map(weightPos + 4L * next, 4L * count).asIntBuffer().get(weight, offset, count);
+                next += count;
+                return count;
+            }
+        }
+
+        private int[] readInts(int count) throws IOException {
+            int[] values = new int[count];
+            int done = 0;
+            while (done < count) {
+                int chunk = (int) Math.min(count - done, MAX_MAP_BYTES / 4);
+                IntBuffer ints = map(position, chunk * 4L).asIntBuffer();
+                ints.get(values, done, chunk);
+                position += chunk * 4L;
+                done += chunk;
+            }
+            return values;
+        }
+
+        // Small regions are read directly; mapping them would cost more than the copy.
+        private ByteBuffer map(long offset, long size) throws IOException {
+            if (offset + size > channel.size()) {
+                throw new IOException("Truncated binary graph file");
+            }
+            if (size < MIN_MAP_BYTES) {
+                ByteBuffer small = ByteBuffer.allocate((int) size);
+                while (small.hasRemaining()) {
+                    if (channel.read(small, offset + small.position()) < 0) {
+                        throw new IOException("Truncated binary graph file");
+                    }
+                }
+                small.flip();
+                return small.order(ByteOrder.LITTLE_ENDIAN);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+            return mapped.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static int padding(int bytes) {
+        return (4 - (bytes & 3)) & 3;
+    }
+}
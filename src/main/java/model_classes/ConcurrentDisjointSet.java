@@ -0,0 +1,54 @@
+package main.java.model_classes;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Lock-free union-find over {@code 0..n-1}. Parent links are updated with CAS only:
+ * {@link #find} compresses by path halving, and {@link #union} always links the root with
+ * the larger id under the smaller one, so concurrent unions can never form a cycle.
+ * This is the concurrent counterpart of {@link DisjointSet}, used by parallel Boruvka.
+ */
+public final class ConcurrentDisjointSet {
+    private final AtomicIntegerArray parent;
+
+    public ConcurrentDisjointSet(int n) {
+        parent = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) {
+            parent.set(i, i);
+        }
+    }
+
+    public int find(int x) {
+        while (true) {
+            int p = parent.get(x);
+            if (p == x) {
+                return x;
+            }
+            int gp = parent.get(p);
+            if (p != gp) {
+                parent.compareAndSet(x, p, gp);
+            }
+            x = gp;
+        }
+    }
+
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    /** Joins the sets of {@code a} and {@code b}; returns false if they were already joined. */
+    public boolean union(int a, int b) {
+        while (true) {
+            int ra = find(a);
+            int rb = find(b);
+            if (ra == rb) {
+                return false;
+            }
+            int low = Math.min(ra, rb);
+            int high = Math.max(ra, rb);
+            if (parent.compareAndSet(high, high, low)) {
+                return true;
+            }
+        }
+    }
+}
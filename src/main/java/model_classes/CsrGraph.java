@@ -0,0 +1,916 @@
+package main.java.model_classes;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Immutable compressed-sparse-row view of an undirected weighted graph.
+ * Node labels are interned to int ids once at build time; adjacency, neighbor ids
+ * and weights live in flat int arrays, so the MST loops never allocate per edge and
+ * never hash a label. Labels are only mapped back when an {@link Graph.MSTResult} is produced.
+ */
+public final class CsrGraph {
+    // Package-private so BinaryGraphFile can write and load the arrays without re-deriving them.
+    final String[] labels;
+    final int[] edgeFrom;
+    final int[] edgeTo;
+    final int[] edgeWeight;
+    final int[] offsets;     // adjacency of node u is [offsets[u], offsets[u + 1])
+    final int[] adjTarget;
+    final int[] adjWeight;
+    final int[] adjEdge;     // edge id of each adjacency slot
+
+    CsrGraph(String[] labels, int[] edgeFrom, int[] edgeTo, int[] edgeWeight,
+             int[] offsets, int[] adjTarget, int[] adjWeight, int[] adjEdge) {
+        this.labels = labels;
+        this.edgeFrom = edgeFrom;
+        this.edgeTo = edgeTo;
+        this.edgeWeight = edgeWeight;
+        this.offsets = offsets;
+        this.adjTarget = adjTarget;
+        this.adjWeight = adjWeight;
+        this.adjEdge = adjEdge;
+    }
+
+    private CsrGraph(String[] labels, int[] edgeFrom, int[] edgeTo, int[] edgeWeight) {
+        this.labels = labels;
+        this.edgeFrom = edgeFrom;
+        this.edgeTo = edgeTo;
+        this.edgeWeight = edgeWeight;
+        int n = labels.length;
+        int m = edgeFrom.length;
+        this.offsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            offsets[edgeFrom[i] + 1]++;
+            offsets[edgeTo[i] + 1]++;
+        }
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+        this.adjTarget = new int[2 * m];
+        this.adjWeight = new int[2 * m];
+        this.adjEdge = new int[2 * m];
+        int[] next = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < m; i++) {
+            int u = edgeFrom[i];
+            int v = edgeTo[i];
+            int slot = next[u]++;
+            adjTarget[slot] = v;
+            adjWeight[slot] = edgeWeight[i];
+            adjEdge[slot] = i;
+            slot = next[v]++;
+            adjTarget[slot] = u;
+            adjWeight[slot] = edgeWeight[i];
+            adjEdge[slot] = i;
+        }
+    }
+
+    public int getVertexCount() {
+        return labels.length;
+    }
+
+    public int getEdgeCount() {
+        return edgeFrom.length;
+    }
+
+    public String getLabel(int node) {
+        return labels[node];
+    }
+
+    /** Number of distinct values between the lightest and heaviest edge weight, 0 without edges. */
+    public long getWeightRange() {
+        if (edgeWeight.length == 0) {
+            return 0;
+        }
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int w : edgeWeight) {
+            min = Math.min(min, w);
+            max = Math.max(max, w);
+        }
+        return (long) max - min + 1;
+    }
+
+    /**
+     * 128-bit hex hash of the node label set and the multiset of undirected weighted edges.
+     * Node order, edge order and edge orientation do not change it, so re-sent copies of a
+     * graph map to the same key. Every edge hash is mixed independently and summed, which makes
+     * the hash linear in the graph size without sorting anything.
+     */
+    public String contentHash() {
+        return contentHash(Arrays.asList(labels), edgeFrom, edgeTo, edgeWeight, edgeFrom.length);
+    }
+
+    private static String contentHash(List<String> labels, int[] from, int[] to, int[] weight, int m) {
+        int n = labels.size();
+        long[] labelHash = new long[n];
+        long nodeLane1 = n;
+        long nodeLane2 = ~(long) n;
+        for (int i = 0; i < n; i++) {
+            String label = labels.get(i);
+            long h = 0xcbf29ce484222325L;   // FNV-1a over the UTF-16 chars, then a final mix
+            for (int c = 0; c < label.length(); c++) {
+                h = (h ^ label.charAt(c)) * 0x100000001b3L;
+            }
+            labelHash[i] = mix(h ^ label.length());
+            nodeLane1 += mix(labelHash[i] + 0x9E3779B97F4A7C15L);
+            nodeLane2 += mix(labelHash[i] ^ 0xC2B2AE3D27D4EB4FL);
+        }
+        long edgeLane1 = m;
+        long edgeLane2 = ~(long) m;
+        for (int e = 0; e < m; e++) {
+            long a = labelHash[from[e]];
+            long b = labelHash[to[e]];
+            long lo = Math.min(a, b);
+            long hi = Math.max(a, b);
+            edgeLane1 += mix(mix(lo ^ 0x165667B19E3779F9L) + hi * 0x27D4EB2F165667C5L + weight[e]);
+            edgeLane2 += mix(mix(hi ^ 0x85EBCA77C2B2AE63L) + lo * 0x9E3779B185EBCA87L + ((long) weight[e] << 17));
+        }
+        return String.format("%016x%016x", mix(nodeLane1) ^ edgeLane1, mix(nodeLane2) ^ edgeLane2);
+    }
+
+    // Final mixer of MurmurHash3 (fmix64).
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    public static final int DEFAULT_HEAP_ARITY = 4;
+
+    public Graph.MSTResult computeMST(MSTAlgorithm algorithm) {
+        switch (algorithm) {
+            case PRIM:
+                return computePrimMST();
+            case EAGER_PRIM:
+                return computeEagerPrimMST(DEFAULT_HEAP_ARITY);
+            case KRUSKAL:
+                return computeKruskalMST();
+            case FILTER_KRUSKAL:
+                return computeFilterKruskalMST();
+            case BORUVKA:
+                return computeBoruvkaMST();
+            default:
+                throw new IllegalArgumentException("Unsupported algorithm: " + algorithm);
+        }
+    }
+
+    // Components with at least this many vertices are solved on the pool; smaller ones inline.
+    private static final int FOREST_PARALLEL_VERTICES = 4096;
+
+    /**
+     * Labels the connected components with one BFS pass over the adjacency arrays and stores the
+     * component of every vertex in {@code component}. Components are numbered in order of their
+     * lowest vertex id. Returns the number of components.
+     */
+    public int labelComponents(int[] component) {
+        int n = labels.length;
+        Arrays.fill(component, 0, n, -1);
+        int[] queue = new int[n];
+        int count = 0;
+        for (int root = 0; root < n; root++) {
+            if (component[root] >= 0) {
+                continue;
+            }
+            component[root] = count;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = root;
+            while (head < tail) {
+                int u = queue[head++];
+                for (int slot = offsets[u]; slot < offsets[u + 1]; slot++) {
+                    int v = adjTarget[slot];
+                    if (component[v] < 0) {
+                        component[v] = count;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+            count++;
+        }
+        return count;
+    }
+
+    public Graph.MSTResult computeSpanningForest(MSTAlgorithm algorithm) {
+        return computeSpanningForest(algorithm, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Minimum spanning forest: labels the connected components, runs the engine on each component
+     * as a graph of its own and merges the trees. Components of at least
+     * {@value #FOREST_PARALLEL_VERTICES} vertices run concurrently on {@code parallelism} threads.
+     * {@link Graph.MSTResult#components} lists every component's size, tree and cost in component
+     * order; the totals, operation counts and wall-clock time cover the whole forest.
+     */
+    public Graph.MSTResult computeSpanningForest(MSTAlgorithm algorithm, int parallelism) {
+        int n = labels.length;
+        int m = edgeFrom.length;
+        long startTime = System.nanoTime();
+        int[] component = new int[n];
+        int count = labelComponents(component);
+        long ops = n + 2L * m;
+
+        if (count <= 1) {
+            Graph.MSTResult single = computeMST(algorithm);
+            long endTime = System.nanoTime();
+            single.operationsCount += ops;
+            single.executionTimeMs = Math.round((endTime - startTime) / 1e4) / 100.0;
+            single.components = new ArrayList<>(count);
+            if (count == 1) {
+                single.components.add(componentResult(n, single));
+            }
+            return single;
+        }
+
+        // Bucket vertices and edges by component so each subgraph is a contiguous slice.
+        int[] vertexStart = new int[count + 1];
+        int[] edgeStart = new int[count + 1];
+        for (int u = 0; u < n; u++) {
+            vertexStart[component[u] + 1]++;
+        }
+        for (int e = 0; e < m; e++) {
+            edgeStart[component[edgeFrom[e]] + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            vertexStart[c + 1] += vertexStart[c];
+            edgeStart[c + 1] += edgeStart[c];
+        }
+        int[] localId = new int[n];
+        String[] sortedLabels = new String[n];
+        int[] nextVertex = Arrays.copyOf(vertexStart, count);
+        for (int u = 0; u < n; u++) {
+            int slot = nextVertex[component[u]]++;
+            localId[u] = slot - vertexStart[component[u]];
+            sortedLabels[slot] = labels[u];
+        }
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] weight = new int[m];
+        int[] nextEdge = Arrays.copyOf(edgeStart, count);
+        for (int e = 0; e < m; e++) {
+            int slot = nextEdge[component[edgeFrom[e]]]++;
+            from[slot] = localId[edgeFrom[e]];
+            to[slot] = localId[edgeTo[e]];
+            weight[slot] = edgeWeight[e];
+        }
+
+        Graph.MSTResult[] parts = new Graph.MSTResult[count];
+        List<ForkJoinTask<?>> pending = new ArrayList<>();
+        ForkJoinPool pool = parallelism > 1 ? sharedPool(parallelism) : null;
+        for (int c = 0; c < count; c++) {
+            int vLo = vertexStart[c];
+            int vHi = vertexStart[c + 1];
+            int eLo = edgeStart[c];
+            int eHi = edgeStart[c + 1];
+            if (vHi - vLo == 1) {
+                continue;
+            }
+            int index = c;
+            Runnable solve = () -> parts[index] = new CsrGraph(
+                    Arrays.copyOfRange(sortedLabels, vLo, vHi),
+                    Arrays.copyOfRange(from, eLo, eHi),
+                    Arrays.copyOfRange(to, eLo, eHi),
+                    Arrays.copyOfRange(weight, eLo, eHi)).computeMST(algorithm);
+            if (pool != null && vHi - vLo >= FOREST_PARALLEL_VERTICES) {
+                pending.add(pool.submit(solve));
+            } else {
+                solve.run();
+            }
+        }
+        for (ForkJoinTask<?> task : pending) {
+            task.join();
+        }
+        long endTime = System.nanoTime();
+
+        Graph.MSTResult result = new Graph.MSTResult();
+        result.mstEdges = new ArrayList<>(n - count);
+        result.components = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            Graph.MSTResult part = parts[c];
+            int vertices = vertexStart[c + 1] - vertexStart[c];
+            if (part == null) {
+                Graph.ComponentResult isolated = new Graph.ComponentResult();
+                isolated.vertices = vertices;
+                isolated.mstEdges = Collections.emptyList();
+                result.components.add(isolated);
+                continue;
+            }
+            result.components.add(componentResult(vertices, part));
+            result.mstEdges.addAll(part.mstEdges);
+            result.totalCost += part.totalCost;
+            result.peakHeapSize = Math.max(result.peakHeapSize, part.peakHeapSize);
+            ops += part.operationsCount;
+            if (MSTStats.ENABLED && part.stats != null) {
+                if (result.stats == null) {
+                    result.stats = MSTStats.start(part.stats.algorithm);
+                }
+                result.stats.add(part.stats);
+            }
+        }
+        Collections.sort(result.mstEdges);
+        result.operationsCount = ops;
+        result.executionTimeMs = Math.round((endTime - startTime) / 1e4) / 100.0;
+        return result;
+    }
+
+    private static Graph.ComponentResult componentResult(int vertices, Graph.MSTResult tree) {
+        Graph.ComponentResult component = new Graph.ComponentResult();
+        component.vertices = vertices;
+        component.mstEdges = tree.mstEdges;
+        component.totalCost = tree.totalCost;
+        return component;
+    }
+
+    public static class Builder implements GraphSink {
+        private final SymbolTable symbols = new SymbolTable();
+        private final EdgeStore edges = new EdgeStore();
+
+        @Override
+        public int addNode(String label) {
+            return symbols.intern(label);
+        }
+
+        @Override
+        public int nodeId(String label) {
+            return symbols.id(label);
+        }
+
+        public void addEdge(String from, String to, int weight) {
+            int u = symbols.id(from);
+            int v = symbols.id(to);
+            if (u < 0 || v < 0) {
+                throw new IllegalArgumentException("Unknown node in edge " + from + "-" + to);
+            }
+            edges.add(u, v, weight);
+        }
+
+        @Override
+        public void addEdge(int u, int v, int w) {
+            edges.add(u, v, w);
+        }
+
+        /** Content hash of the graph built so far; see {@link CsrGraph#contentHash()}. */
+        public String contentHash() {
+            return CsrGraph.contentHash(symbols.labels(), edges.fromColumn(), edges.toColumn(),
+                    edges.weightColumn(), edges.size());
+        }
+
+        public CsrGraph build() {
+            return of(symbols, edges);
+        }
+    }
+
+    static CsrGraph of(SymbolTable symbols, EdgeStore edges) {
+        return new CsrGraph(symbols.toArray(), edges.fromArray(), edges.toArray(), edges.weightArray());
+    }
+
+    // Heap entries pack (weight, edge id) into one long so that natural long order is weight order.
+    static long key(int weight, int edge) {
+        return ((long) weight << 32) | edge;
+    }
+
+    static int keyEdge(long key) {
+        return (int) key;
+    }
+
+    private Edge toEdge(int edge) {
+        return new Edge(labels[edgeFrom[edge]], labels[edgeTo[edge]], edgeWeight[edge]);
+    }
+
+    public Graph.MSTResult computePrimMST() {
+        Graph.MSTResult result = new Graph.MSTResult();
+        result.mstEdges = new ArrayList<>();
+        result.totalCost = 0;
+        int n = labels.length;
+        if (n == 0) {
+            result.operationsCount = 0;
+            result.executionTimeMs = 0.0;
+            return result;
+        }
+        long ops = 0;
+        MSTStats stats = MSTStats.start("prim");
+        boolean[] visited = new boolean[n];
+        int[] chosen = new int[Math.max(n - 1, 0)];
+        int chosenCount = 0;
+        long[] heap = new long[16];
+        int heapSize = 0;
+
+        long startTime = System.nanoTime();
+        if (MSTStats.ENABLED) stats.lap(MSTStats.Phase.BUILD);
+        visited[0] = true;
+        int visitedCount = 1;
+        int current = 0;
+        while (true) {
+            for (int slot = offsets[current]; slot < offsets[current + 1]; slot++) {
+                ops++;
+                if (!visited[adjTarget[slot]]) {
+                    if (heapSize == heap.length) {
+                        heap = Arrays.copyOf(heap, heapSize * 2);
+                    }
+                    siftUp(heap, heapSize++, key(adjWeight[slot], adjEdge[slot]));
+                    ops++;
+                    if (MSTStats.ENABLED) stats.heapPushes++;
+                }
+            }
+            result.peakHeapSize = Math.max(result.peakHeapSize, heapSize);
+            if (heapSize == 0 || visitedCount == n) {
+                break;
+            }
+            int next = -1;
+            while (heapSize > 0) {
+                int edge = keyEdge(heap[0]);
+                heapSize--;
+                if (heapSize > 0) {
+                    siftDown(heap, heapSize, heap[heapSize]);
+                }
+                ops++;
+                if (MSTStats.ENABLED) stats.heapPops++;
+                int u = edgeFrom[edge];
+                int v = edgeTo[edge];
+                if (visited[u] && visited[v]) {
+                    ops++;
+                    if (MSTStats.ENABLED) stats.stalePops++;
+                    continue;
+                }
+                chosen[chosenCount++] = edge;
+                result.totalCost += edgeWeight[edge];
+                ops++;
+                next = visited[u] ? v : u;
+                break;
+            }
+            if (next < 0) {
+                break;
+            }
+            visited[next] = true;
+            visitedCount++;
+            current = next;
+        }
+        long endTime = System.nanoTime();
+        if (MSTStats.ENABLED) stats.lap(MSTStats.Phase.LOOP);
+
+        for (int i = 0; i < chosenCount; i++) {
+            result.mstEdges.add(toEdge(chosen[i]));
+        }
+        Collections.sort(result.mstEdges);
+        if (MSTStats.ENABLED) {
+            stats.lap(MSTStats.Phase.FINAL_SORT);
+            stats.finish(result);
+        }
+        result.operationsCount = ops;
+        result.executionTimeMs = Math.round((endTime - startTime) / 1e4) / 100.0;
+        return result;
+    }
+
+    /**
+     * Eager Prim: every fringe vertex sits in an indexed d-ary heap once, keyed by its cheapest
+     * connecting edge, and is improved with decrease-key. The heap is bounded by V instead of E.
+     */
+    public Graph.MSTResult computeEagerPrimMST(int heapArity) {
+        Graph.MSTResult result = new Graph.MSTResult();
+        result.mstEdges = new ArrayList<>();
+        result.totalCost = 0;
+        int n = labels.length;
+        if (n == 0) {
+            result.operationsCount = 0;
+            result.executionTimeMs = 0.0;
+            return result;
+        }
+        long ops = 0;
+        MSTStats stats = MSTStats.start("eager-prim");
+        boolean[] visited = new boolean[n];
+        int[] bestEdge = new int[n];
+        int[] chosen = new int[n - 1];
+        int chosenCount = 0;
+        IndexedDaryHeap heap = new IndexedDaryHeap(n, heapArity);
+
+        long startTime = System.nanoTime();
+        if (MSTStats.ENABLED) stats.lap(MSTStats.Phase.BUILD);
+        int current = 0;
+        while (true) {
+            visited[current] = true;
+            for (int slot = offsets[current]; slot < offsets[current + 1]; slot++) {
+                ops++;
+                int v = adjTarget[slot];
+                if (visited[v]) {
+                    continue;
+                }
+                int w = adjWeight[slot];
+                if (!heap.contains(v)) {
+                    heap.insert(v, w);
+                    bestEdge[v] = adjEdge[slot];
+                    ops++;
+                    if (MSTStats.ENABLED) stats.heapPushes++;
+                } else if (w < heap.keyOf(v)) {
+                    heap.decreaseKey(v, w);
+                    bestEdge[v] = adjEdge[slot];
+                    ops++;
+                }
+            }
+            result.peakHeapSize = Math.max(result.peakHeapSize, heap.size());
+            if (heap.isEmpty()) {
+                break;
+            }
+            current = heap.pollMin();
+            ops++;
+            if (MSTStats.ENABLED) stats.heapPops++;
+            int edge = bestEdge[current];
+            chosen[chosenCount++] = edge;
+            result.totalCost += edgeWeight[edge];
+        }
+        long endTime = System.nanoTime();
+        if (MSTStats.ENABLED) stats.lap(MSTStats.Phase.LOOP);
+
+        for (int i = 0; i < chosenCount; i++) {
+            result.mstEdges.add(toEdge(chosen[i]));
+        }
+        Collections.sort(result.mstEdges);
+        if (MSTStats.ENABLED) {
+            stats.lap(MSTStats.Phase.FINAL_SORT);
+            stats.finish(result);
+        }
+        result.operationsCount = ops;
+        result.executionTimeMs = Math.round((endTime - startTime) / 1e4) / 100.0;
+        return result;
+    }
+
+    static void siftUp(long[] heap, int pos, long value) {
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[pos] = heap[parent];
+            pos = parent;
+        }
+        heap[pos] = value;
+    }
+
+    static void siftDown(long[] heap, int size, long value) {
+        int pos = 0;
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (value <= heap[child]) {
+                break;
+            }
+            heap[pos] = heap[child];
+            pos = child;
+        }
+        heap[pos] = value;
+    }
+
+    public Graph.MSTResult computeKruskalMST() {
+        Graph.MSTResult result = new Graph.MSTResult();
+        result.mstEdges = new ArrayList<>();
+        result.totalCost = 0;
+        int n = labels.length;
+        int m = edgeFrom.length;
+        long ops = 0;
+        MSTStats stats = MSTStats.start("kruskal");
+
+        long startTime = System.nanoTime();
+        DisjointSet sets = new DisjointSet(n);
+        sets.setStats(stats);
+        int[] chosen = new int[Math.max(n - 1, 0)];
+        int chosenCount = 0;
+        if (MSTStats.ENABLED) stats.lap(MSTStats.Phase.BUILD);
+
+        int[] order = EdgeSort.sortedOrder(edgeWeight, m);
+        ops += m;
+        if (MSTStats.ENABLED) stats.lap(MSTStats.Phase.SORT);
+
+        for (int edge : order) {
+            if (chosenCount == n - 1) {
+                break;
+            }
+            int rootU = sets.find(edgeFrom[edge]);
+            int rootV = sets.find(edgeTo[edge]);
+            ops += 3;
+            if (rootU != rootV) {
+                sets.linkRoots(rootU, rootV);
+                ops++;
+                chosen[chosenCount++] = edge;
+                result.totalCost += edgeWeight[edge];
+            }
+        }
+        long endTime = System.nanoTime();
+        if (MSTStats.ENABLED) stats.lap(MSTStats.Phase.LOOP);
+
+        // Accepted in weight order already, so the final phase only builds the result list.
+        for (int i = 0; i < chosenCount; i++) {
+            result.mstEdges.add(toEdge(chosen[i]));
+        }
+        if (MSTStats.ENABLED) {
+            stats.lap(MSTStats.Phase.FINAL_SORT);
+            stats.finish(result);
+        }
+        result.operationsCount = ops;
+        result.executionTimeMs = Math.round((endTime - startTime) / 1e4) / 100.0;
+        return result;
+    }
+
+    // Below this many edges Filter-Kruskal stops partitioning and sorts the slice directly.
+    private static final int FILTER_KRUSKAL_THRESHOLD = 512;
+
+    private static final class FilterState {
+        final DisjointSet sets;
+        final int[] chosen;
+        int chosenCount;
+        long ops;
+        long seed = 0x9E3779B97F4A7C15L;
+        final MSTStats stats = MSTStats.start("filter-kruskal");
+
+        FilterState(int n) {
+            sets = new DisjointSet(n);
+            sets.setStats(stats);
+            chosen = new int[Math.max(n - 1, 0)];
+        }
+
+        boolean done() {
+            return chosenCount == chosen.length;
+        }
+
+        int nextRandom(int bound) {
+            seed ^= seed << 13;
+            seed ^= seed >>> 7;
+            seed ^= seed << 17;
+            return (int) ((seed >>> 1) % bound);
+        }
+    }
+
+    /**
+     * Filter-Kruskal: partitions the edges around a sampled pivot weight and handles the light
+     * part first. Heavy edges whose endpoints are already connected by then are filtered out
+     * before they are ever sorted, and the whole scan stops once V-1 edges are accepted.
+     */
+    public Graph.MSTResult computeFilterKruskalMST() {
+        Graph.MSTResult result = new Graph.MSTResult();
+        result.mstEdges = new ArrayList<>();
+        result.totalCost = 0;
+        int m = edgeFrom.length;
+        FilterState state = new FilterState(labels.length);
+
+        long startTime = System.nanoTime();
+        int[] ids = new int[m];
+        for (int i = 0; i < m; i++) {
+            ids[i] = i;
+        }
+        if (MSTStats.ENABLED) state.stats.lap(MSTStats.Phase.BUILD);
+        filterKruskal(state, ids, 0, m);
+        long endTime = System.nanoTime();
+        // Partitioning, filtering and scanning count as the loop; base-case sorts as SORT.
+        if (MSTStats.ENABLED) state.stats.lap(MSTStats.Phase.LOOP);
+
+        for (int i = 0; i < state.chosenCount; i++) {
+            int edge = state.chosen[i];
+            result.mstEdges.add(toEdge(edge));
+            result.totalCost += edgeWeight[edge];
+        }
+        if (MSTStats.ENABLED) {
+            state.stats.lap(MSTStats.Phase.FINAL_SORT);
+            state.stats.finish(result);
+        }
+        result.operationsCount = state.ops;
+        result.executionTimeMs = Math.round((endTime - startTime) / 1e4) / 100.0;
+        return result;
+    }
+
+    private void filterKruskal(FilterState state, int[] ids, int lo, int hi) {
+        // Recurse on the light side only; the heavy side is handled by this loop.
+        while (hi > lo && !state.done()) {
+            if (hi - lo <= FILTER_KRUSKAL_THRESHOLD) {
+                if (MSTStats.ENABLED) state.stats.lap(MSTStats.Phase.LOOP);
+                EdgeSort.sort(ids, lo, hi, edgeWeight);
+                if (MSTStats.ENABLED) state.stats.lap(MSTStats.Phase.SORT);
+                state.ops += hi - lo;
+                kruskalScan(state, ids, lo, hi);
+                return;
+            }
+            int pivot = medianOf3(edgeWeight[ids[lo + state.nextRandom(hi - lo)]],
+                    edgeWeight[ids[lo + state.nextRandom(hi - lo)]],
+                    edgeWeight[ids[lo + state.nextRandom(hi - lo)]]);
+            // Three-way partition: [lo, lt) < pivot, [lt, gt) == pivot, [gt, hi) > pivot.
+            int lt = lo;
+            int gt = hi;
+            int i = lo;
+            while (i < gt) {
+                int id = ids[i];
+                int w = edgeWeight[id];
+                state.ops++;
+                if (MSTStats.ENABLED) state.stats.comparisons++;
+                if (w < pivot) {
+                    ids[i++] = ids[lt];
+                    ids[lt++] = id;
+                } else if (w > pivot) {
+                    ids[i] = ids[--gt];
+                    ids[gt] = id;
+                } else {
+                    i++;
+                }
+            }
+            filterKruskal(state, ids, lo, lt);
+            kruskalScan(state, ids, lt, gt);
+            lo = gt;
+            hi = filter(state, ids, gt, hi);
+        }
+    }
+
+    private void kruskalScan(FilterState state, int[] ids, int lo, int hi) {
+        for (int i = lo; i < hi && !state.done(); i++) {
+            int edge = ids[i];
+            int rootU = state.sets.find(edgeFrom[edge]);
+            int rootV = state.sets.find(edgeTo[edge]);
+            state.ops += 3;
+            if (rootU != rootV) {
+                state.sets.linkRoots(rootU, rootV);
+                state.ops++;
+                state.chosen[state.chosenCount++] = edge;
+            }
+        }
+    }
+
+    // Compacts ids[lo, hi) to the edges that still join two components; returns the new end.
+    private int filter(FilterState state, int[] ids, int lo, int hi) {
+        if (state.done()) {
+            return lo;
+        }
+        int out = lo;
+        for (int i = lo; i < hi; i++) {
+            int edge = ids[i];
+            state.ops += 2;
+            if (!state.sets.connected(edgeFrom[edge], edgeTo[edge])) {
+                ids[out++] = edge;
+            }
+        }
+        return out;
+    }
+
+    private static int medianOf3(int a, int b, int c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    // Smallest index range a Boruvka worker task handles without splitting further.
+    private static final int BORUVKA_GRAIN = 4096;
+    private static final long NO_EDGE = Long.MAX_VALUE;
+
+    private interface RangeBody {
+        void run(int lo, int hi);
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RangeBody body;
+        private final int lo;
+        private final int hi;
+
+        RangeTask(RangeBody body, int lo, int hi) {
+            this.body = body;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= BORUVKA_GRAIN) {
+                body.run(lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new RangeTask(body, lo, mid), new RangeTask(body, mid, hi));
+        }
+    }
+
+    // One pool per parallelism, shared by every Boruvka and forest run; workers are daemon threads that idle out.
+    private static final Map<Integer, ForkJoinPool> SHARED_POOLS = new ConcurrentHashMap<>();
+
+    private static ForkJoinPool sharedPool(int parallelism) {
+        return SHARED_POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+    }
+
+    private static void parallelFor(ForkJoinPool pool, int count, RangeBody body) {
+        if (pool == null || count <= BORUVKA_GRAIN) {
+            body.run(0, count);
+        } else {
+            pool.invoke(new RangeTask(body, 0, count));
+        }
+    }
+
+    private static void offerMin(AtomicLongArray best, int slot, long key) {
+        long current = best.get(slot);
+        while (key < current && !best.compareAndSet(slot, current, key)) {
+            current = best.get(slot);
+        }
+    }
+
+    public Graph.MSTResult computeBoruvkaMST() {
+        return computeBoruvkaMST(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Parallel Boruvka: each round finds the lightest outgoing edge of every component in
+     * parallel over edge ranges, then merges components through a {@link ConcurrentDisjointSet}.
+     * Ties are broken by edge id, so the selected edges always form a forest.
+     */
+    public Graph.MSTResult computeBoruvkaMST(int parallelism) {
+        Graph.MSTResult result = new Graph.MSTResult();
+        result.mstEdges = new ArrayList<>();
+        result.totalCost = 0;
+        int n = labels.length;
+        int m = edgeFrom.length;
+        ConcurrentDisjointSet components = new ConcurrentDisjointSet(n);
+        AtomicLongArray best = new AtomicLongArray(n);
+        for (int i = 0; i < n; i++) {
+            best.set(i, NO_EDGE);
+        }
+        int[] chosen = new int[Math.max(n - 1, 0)];
+        AtomicInteger chosenCount = new AtomicInteger();
+        LongAdder ops = new LongAdder();
+        ForkJoinPool pool = parallelism > 1 ? sharedPool(parallelism) : null;
+        MSTStats stats = MSTStats.start("boruvka");
+
+        long startTime = System.nanoTime();
+        int[] active = new int[m];
+        for (int i = 0; i < m; i++) {
+            active[i] = i;
+        }
+        int activeCount = m;
+        if (MSTStats.ENABLED) stats.lap(MSTStats.Phase.BUILD);
+        while (activeCount > 0 && chosenCount.get() < n - 1) {
+            int[] edges = active;
+            int chosenBefore = chosenCount.get();
+            parallelFor(pool, activeCount, (lo, hi) -> {
+                for (int i = lo; i < hi; i++) {
+                    int edge = edges[i];
+                    int ru = components.find(edgeFrom[edge]);
+                    int rv = components.find(edgeTo[edge]);
+                    if (ru == rv) {
+                        edges[i] = -1;
+                        continue;
+                    }
+                    long k = key(edgeWeight[edge], edge);
+                    offerMin(best, ru, k);
+                    offerMin(best, rv, k);
+                }
+                ops.add(3L * (hi - lo));
+            });
+            parallelFor(pool, n, (lo, hi) -> {
+                for (int r = lo; r < hi; r++) {
+                    long k = best.get(r);
+                    if (k == NO_EDGE) {
+                        continue;
+                    }
+                    best.set(r, NO_EDGE);
+                    int edge = keyEdge(k);
+                    if (components.union(edgeFrom[edge], edgeTo[edge])) {
+                        chosen[chosenCount.getAndIncrement()] = edge;
+                        ops.increment();
+                    }
+                }
+            });
+            int out = 0;
+            for (int i = 0; i < activeCount; i++) {
+                if (edges[i] >= 0) {
+                    active[out++] = edges[i];
+                }
+            }
+            if (MSTStats.ENABLED) {
+                // Counted between rounds, so the parallel scans share no counters.
+                stats.rounds++;
+                stats.finds += 2L * activeCount;
+                stats.comparisons += 2L * out;
+                stats.unions += chosenCount.get() - chosenBefore;
+            }
+            activeCount = out;
+        }
+        long endTime = System.nanoTime();
+        if (MSTStats.ENABLED) stats.lap(MSTStats.Phase.LOOP);
+
+        int count = chosenCount.get();
+        Arrays.sort(chosen, 0, count);
+        EdgeSort.sort(chosen, 0, count, edgeWeight);
+        for (int i = 0; i < count; i++) {
+            result.mstEdges.add(toEdge(chosen[i]));
+            result.totalCost += edgeWeight[chosen[i]];
+        }
+        if (MSTStats.ENABLED) {
+            stats.lap(MSTStats.Phase.FINAL_SORT);
+            stats.finish(result);
+        }
+        result.operationsCount = ops.sum();
+        result.executionTimeMs = Math.round((endTime - startTime) / 1e4) / 100.0;
+        return result;
+    }
+}
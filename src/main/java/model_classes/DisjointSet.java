@@ -0,0 +1,159 @@
+package main.java.model_classes;
+
+import java.util.Arrays;
+
+/**
+ * Union-find over {@code 0..n-1} backed by two int arrays. {@link #find} is iterative, so long
+ * parent chains cannot overflow the stack, and no operation allocates; {@link #reset} prepares
+ * the same instance for another graph, growing the arrays only when it has to.
+ * <p>
+ * The path compression and union rule are selectable for benchmarking ({@code DisjointSetBenchmark});
+ * the defaults, path halving with union by rank, were the fastest on our graph shapes. For
+ * concurrent use see {@link ConcurrentDisjointSet}.
+ */
+public final class DisjointSet {
+    public enum Compression {
+        NONE,       // follow parent links only
+        FULL,       // second pass points every node on the path at the root
+        HALVING,    // every other node on the path skips to its grandparent
+        SPLITTING   // every node on the path skips to its grandparent
+    }
+
+    public enum UnionRule {
+        RANK,       // attach the shallower tree under the deeper one
+        SIZE        // attach the smaller tree under the larger one
+    }
+
+    public static final Compression DEFAULT_COMPRESSION = Compression.HALVING;
+    public static final UnionRule DEFAULT_UNION = UnionRule.RANK;
+
+    private final Compression compression;
+    private final UnionRule unionRule;
+    private int[] parent;
+    private int[] weight;     // rank or size of each root, depending on the union rule
+    private int size;
+    private int sets;
+    private MSTStats stats;
+
+    public DisjointSet(int n) {
+        this(n, DEFAULT_COMPRESSION, DEFAULT_UNION);
+    }
+
+    public DisjointSet(int n, Compression compression, UnionRule unionRule) {
+        this.compression = compression;
+        this.unionRule = unionRule;
+        this.parent = new int[n];
+        this.weight = new int[n];
+        reset(n);
+    }
+
+    /** Makes every element {@code 0..n-1} a singleton set again. */
+    public void reset(int n) {
+        if (n > parent.length) {
+            parent = new int[n];
+            weight = new int[n];
+        }
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        Arrays.fill(weight, 0, n, unionRule == UnionRule.SIZE ? 1 : 0);
+        size = n;
+        sets = n;
+    }
+
+    /** Counts finds, unions and compression steps into the given stats; null stops counting. */
+    public void setStats(MSTStats stats) {
+        this.stats = stats;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Number of disjoint sets among {@code 0..size()-1}. */
+    public int setCount() {
+        return sets;
+    }
+
+    /** Number of elements in the set of {@code x}; only tracked under {@link UnionRule#SIZE}. */
+    public int setSize(int x) {
+        if (unionRule != UnionRule.SIZE) {
+            throw new IllegalStateException("Set sizes are only tracked with union by size");
+        }
+        return weight[find(x)];
+    }
+
+    public int find(int x) {
+        if (MSTStats.ENABLED && stats != null) stats.finds++;
+        int[] p = parent;
+        switch (compression) {
+            case HALVING:
+                while (p[x] != x) {
+                    if (MSTStats.ENABLED && stats != null) stats.compressionSteps++;
+                    p[x] = p[p[x]];
+                    x = p[x];
+                }
+                return x;
+            case SPLITTING:
+                while (p[x] != x) {
+                    if (MSTStats.ENABLED && stats != null) stats.compressionSteps++;
+                    int next = p[x];
+                    p[x] = p[next];
+                    x = next;
+                }
+                return x;
+            case FULL: {
+                int root = x;
+                while (p[root] != root) {
+                    if (MSTStats.ENABLED && stats != null) stats.compressionSteps++;
+                    root = p[root];
+                }
+                while (p[x] != root) {
+                    int next = p[x];
+                    p[x] = root;
+                    x = next;
+                }
+                return root;
+            }
+            default:
+                while (p[x] != x) {
+                    if (MSTStats.ENABLED && stats != null) stats.compressionSteps++;
+                    x = p[x];
+                }
+                return x;
+        }
+    }
+
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    /** Joins the sets of {@code a} and {@code b}; returns false if they were already joined. */
+    public boolean union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb) {
+            return false;
+        }
+        linkRoots(ra, rb);
+        return true;
+    }
+
+    /** Joins two distinct roots returned by {@link #find}; saves the finds when the caller has them. */
+    public void linkRoots(int ra, int rb) {
+        if (MSTStats.ENABLED && stats != null) stats.unions++;
+        int[] w = weight;
+        if (w[ra] < w[rb]) {
+            int t = ra;
+            ra = rb;
+            rb = t;
+        }
+        parent[rb] = ra;
+        if (unionRule == UnionRule.SIZE) {
+            w[ra] += w[rb];
+        } else if (w[ra] == w[rb]) {
+            w[ra]++;
+        }
+        sets--;
+    }
+}
@@ -0,0 +1,364 @@
+package main.java.model_classes;
+
+import java.util.*;
+
+/**
+ * Fully dynamic minimum spanning forest: edge insertions, deletions and weight changes.
+ * The current forest lives in a {@link LinkCutTree} where every tree edge is a node of its own
+ * between its endpoints, carrying the edge weight. Insertions and weight decreases only compare
+ * against the heaviest edge on the cycle they would close (O(log V) amortized).
+ * <p>
+ * When a tree edge is deleted or becomes heavier, the replacement is the lightest non-tree edge
+ * that reconnects the two halves. Both halves are explored at the same pace over the per-vertex
+ * incident edge lists until the smaller one is exhausted; only the smaller half's edges are then
+ * checked. A closure therefore costs O(size of the smaller half) instead of a full recompute, and
+ * closures near the fringe of the network are cheap. This is much simpler to get right than a
+ * Holm-de Lichtenberg-Thorup hierarchy, at the price of no polylog worst-case bound for deletions.
+ */
+public class DynamicMST {
+    private final List<String> labels = new ArrayList<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final LinkCutTree tree;
+
+    private int[] from = new int[16];
+    private int[] to = new int[16];
+    private int[] weight = new int[16];
+    private int[] treeNode = new int[16];     // link-cut node of a tree edge, or -1
+    private boolean[] removed = new boolean[16];
+    private int edgeCount;
+
+    private final Map<Long, List<Integer>> edgesByEndpoints = new HashMap<>();
+    private final int[][] incident;           // live edge ids touching each vertex
+    private final int[] incidentCount;
+    private final int[] queueA;               // scratch for the two-sided search in reconnect
+    private final int[] queueB;
+    private final int[] mark;
+    private int stamp;
+
+    private int[] edgeOfNode;                 // edge id of each link-cut edge node
+    private int[] freeNodes;
+    private int freeCount;
+
+    private long totalCost;
+    private int treeEdgeCount;
+    private long ops;
+    private long updateNanos;
+
+    public DynamicMST(List<String> nodes) {
+        for (String label : nodes) {
+            if (!ids.containsKey(label)) {
+                ids.put(label, labels.size());
+                labels.add(label);
+            }
+        }
+        int n = labels.size();
+        // Nodes [0, n) are vertices, [n, 2n) are slots for the at most n-1 tree edges.
+        tree = new LinkCutTree(2 * n);
+        edgeOfNode = new int[2 * n];
+        incident = new int[n][];
+        incidentCount = new int[n];
+        queueA = new int[n];
+        queueB = new int[n];
+        mark = new int[n];
+        freeNodes = new int[n];
+        for (int i = n - 1; i >= 0; i--) {
+            freeNodes[freeCount++] = n + i;
+        }
+    }
+
+    /** Seeds the structure with every edge of the graph, inserted in weight order. */
+    public static DynamicMST fromGraph(Graph graph) {
+        return fromGraph(graph.toCsr());
+    }
+
+    public static DynamicMST fromGraph(CsrGraph graph) {
+        DynamicMST mst = new DynamicMST(Arrays.asList(graph.labels));
+        for (int edge : EdgeSort.sortedOrder(graph.edgeWeight, graph.edgeWeight.length)) {
+            mst.addEdge(graph.edgeFrom[edge], graph.edgeTo[edge], graph.edgeWeight[edge]);
+        }
+        return mst;
+    }
+
+    public int getVertexCount() {
+        return labels.size();
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    public long getTotalCost() {
+        return totalCost;
+    }
+
+    public int getWeight(int edgeId) {
+        return weight[edgeId];
+    }
+
+    public boolean isTreeEdge(int edgeId) {
+        return treeNode[edgeId] >= 0;
+    }
+
+    /** Inserts an undirected edge and returns its id for later updates. */
+    public int addEdge(String fromLabel, String toLabel, int w) {
+        return addEdge(nodeId(fromLabel), nodeId(toLabel), w);
+    }
+
+    /** Id of a live edge between the two nodes with the given weight, or -1 if there is none. */
+    public int findEdge(String fromLabel, String toLabel, int w) {
+        List<Integer> candidates = edgesByEndpoints.get(endpointKey(nodeId(fromLabel), nodeId(toLabel)));
+        if (candidates != null) {
+            for (int edge : candidates) {
+                if (weight[edge] == w) {
+                    return edge;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int nodeId(String label) {
+        Integer id = ids.get(label);
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown node: " + label);
+        }
+        return id;
+    }
+
+    private static long endpointKey(int u, int v) {
+        return ((long) Math.min(u, v) << 32) | Math.max(u, v);
+    }
+
+    private int addEdge(int u, int v, int w) {
+        long start = System.nanoTime();
+        if (edgeCount == from.length) {
+            int capacity = edgeCount * 2;
+            from = Arrays.copyOf(from, capacity);
+            to = Arrays.copyOf(to, capacity);
+            weight = Arrays.copyOf(weight, capacity);
+            treeNode = Arrays.copyOf(treeNode, capacity);
+            removed = Arrays.copyOf(removed, capacity);
+        }
+        int edge = edgeCount++;
+        from[edge] = u;
+        to[edge] = v;
+        weight[edge] = w;
+        treeNode[edge] = -1;
+        edgesByEndpoints.computeIfAbsent(endpointKey(u, v), k -> new ArrayList<>(1)).add(edge);
+        addIncident(u, edge);
+        if (v != u) {
+            addIncident(v, edge);
+        }
+        offer(edge);
+        updateNanos += System.nanoTime() - start;
+        return edge;
+    }
+
+    /** Lowers the weight of an existing edge. */
+    public void decreaseWeight(int edgeId, int newWeight) {
+        checkLive(edgeId);
+        if (newWeight > weight[edgeId]) {
+            throw new IllegalArgumentException("Weight of edge " + edgeId + " can only decrease");
+        }
+        updateWeight(edgeId, newWeight);
+    }
+
+    /** Changes the weight of an existing edge in either direction. */
+    public void updateWeight(int edgeId, int newWeight) {
+        checkLive(edgeId);
+        long start = System.nanoTime();
+        int oldWeight = weight[edgeId];
+        int x = treeNode[edgeId];
+        if (x >= 0 && newWeight <= oldWeight) {
+            // A cheaper tree edge keeps the tree minimal; only its cost changes.
+            totalCost -= oldWeight - newWeight;
+            weight[edgeId] = newWeight;
+            tree.setValue(x, newWeight);
+            ops++;
+        } else if (x >= 0) {
+            // A heavier tree edge competes with the edges across its cut, itself included.
+            cutEdge(edgeId);
+            weight[edgeId] = newWeight;
+            reconnect(from[edgeId], to[edgeId]);
+        } else {
+            weight[edgeId] = newWeight;
+            offer(edgeId);
+        }
+        updateNanos += System.nanoTime() - start;
+    }
+
+    /** Deletes an edge; if it was in the tree the lightest replacement edge takes its place. */
+    public void removeEdge(int edgeId) {
+        checkLive(edgeId);
+        long start = System.nanoTime();
+        removed[edgeId] = true;
+        List<Integer> same = edgesByEndpoints.get(endpointKey(from[edgeId], to[edgeId]));
+        same.remove(Integer.valueOf(edgeId));
+        if (same.isEmpty()) {
+            edgesByEndpoints.remove(endpointKey(from[edgeId], to[edgeId]));
+        }
+        removeIncident(from[edgeId], edgeId);
+        if (to[edgeId] != from[edgeId]) {
+            removeIncident(to[edgeId], edgeId);
+        }
+        if (treeNode[edgeId] >= 0) {
+            cutEdge(edgeId);
+            reconnect(from[edgeId], to[edgeId]);
+        }
+        updateNanos += System.nanoTime() - start;
+    }
+
+    private void checkLive(int edgeId) {
+        if (edgeId < 0 || edgeId >= edgeCount || removed[edgeId]) {
+            throw new IllegalArgumentException("Unknown edge id: " + edgeId);
+        }
+    }
+
+    // Adds a non-tree edge to the forest if it connects two trees or beats the cycle maximum.
+    private void offer(int edge) {
+        int u = from[edge];
+        int v = to[edge];
+        ops++;
+        if (u == v) {
+            return;
+        }
+        if (!tree.connected(u, v)) {
+            linkEdge(edge);
+            return;
+        }
+        int heaviest = tree.pathMax(u, v);
+        ops++;
+        if (tree.getValue(heaviest) > weight[edge]) {
+            cutEdge(edgeOfNode[heaviest]);
+            linkEdge(edge);
+        }
+    }
+
+    private void addIncident(int u, int edge) {
+        int[] list = incident[u];
+        if (list == null) {
+            list = incident[u] = new int[4];
+        } else if (incidentCount[u] == list.length) {
+            list = incident[u] = Arrays.copyOf(list, list.length * 2);
+        }
+        list[incidentCount[u]++] = edge;
+    }
+
+    private void removeIncident(int u, int edge) {
+        int[] list = incident[u];
+        for (int i = 0; i < incidentCount[u]; i++) {
+            if (list[i] == edge) {
+                list[i] = list[--incidentCount[u]];
+                return;
+            }
+        }
+    }
+
+    private int otherEnd(int edge, int u) {
+        return from[edge] == u ? to[edge] : from[edge];
+    }
+
+    // After a tree edge u-v was cut, links the lightest live edge joining the halves of u and v.
+    private void reconnect(int u, int v) {
+        if (stamp > Integer.MAX_VALUE - 2) {
+            Arrays.fill(mark, 0);
+            stamp = 0;
+        }
+        stamp += 2;
+        int sideA = stamp;
+        int sideB = stamp + 1;
+        mark[u] = sideA;
+        mark[v] = sideB;
+        queueA[0] = u;
+        queueB[0] = v;
+        int headA = 0;
+        int tailA = 1;
+        int headB = 0;
+        int tailB = 1;
+        // Grow both halves one vertex at a time along tree edges until one of them is complete.
+        while (headA < tailA && headB < tailB) {
+            tailA = expand(queueA, headA++, tailA, sideA);
+            tailB = expand(queueB, headB++, tailB, sideB);
+        }
+        boolean aDone = headA == tailA;
+        int[] queue = aDone ? queueA : queueB;
+        int size = aDone ? tailA : tailB;
+        int side = aDone ? sideA : sideB;
+
+        int best = -1;
+        for (int i = 0; i < size; i++) {
+            int x = queue[i];
+            for (int k = 0; k < incidentCount[x]; k++) {
+                int edge = incident[x][k];
+                ops++;
+                if (treeNode[edge] < 0 && mark[otherEnd(edge, x)] != side
+                        && (best < 0 || weight[edge] < weight[best] || (weight[edge] == weight[best] && edge < best))) {
+                    best = edge;
+                }
+            }
+        }
+        if (best >= 0) {
+            linkEdge(best);
+        }
+    }
+
+    // Appends the unvisited tree neighbours of queue[head] to the queue; returns the new tail.
+    private int expand(int[] queue, int head, int tail, int side) {
+        int x = queue[head];
+        for (int k = 0; k < incidentCount[x]; k++) {
+            int edge = incident[x][k];
+            ops++;
+            if (treeNode[edge] >= 0) {
+                int y = otherEnd(edge, x);
+                if (mark[y] != side) {
+                    mark[y] = side;
+                    queue[tail++] = y;
+                }
+            }
+        }
+        return tail;
+    }
+
+    private void linkEdge(int edge) {
+        int x = freeNodes[--freeCount];
+        edgeOfNode[x] = edge;
+        treeNode[edge] = x;
+        tree.setValue(x, weight[edge]);
+        tree.link(from[edge], x);
+        tree.link(x, to[edge]);
+        totalCost += weight[edge];
+        treeEdgeCount++;
+        ops += 2;
+    }
+
+    private void cutEdge(int edge) {
+        int x = treeNode[edge];
+        tree.cut(from[edge], x);
+        tree.cut(x, to[edge]);
+        tree.setValue(x, Integer.MIN_VALUE);
+        treeNode[edge] = -1;
+        freeNodes[freeCount++] = x;
+        totalCost -= weight[edge];
+        treeEdgeCount--;
+        ops += 2;
+    }
+
+    /**
+     * Snapshot of the current minimum spanning forest. {@code executionTimeMs} is the total time
+     * spent in updates so far and {@code operationsCount} the link-cut operations they needed.
+     */
+    public Graph.MSTResult currentResult() {
+        Graph.MSTResult result = new Graph.MSTResult();
+        result.mstEdges = new ArrayList<>(treeEdgeCount);
+        for (int e = 0; e < edgeCount; e++) {
+            if (treeNode[e] >= 0) {
+                result.mstEdges.add(new Edge(labels.get(from[e]), labels.get(to[e]), weight[e]));
+            }
+        }
+        Collections.sort(result.mstEdges);
+        result.totalCost = (int) totalCost;
+        result.operationsCount = ops;
+        result.executionTimeMs = Math.round(updateNanos / 1e4) / 100.0;
+        return result;
+    }
+}
@@ -0,0 +1,86 @@
+package main.java.model_classes;
+
+import java.util.Arrays;
+
+/**
+ * Stable ordering of edge ids by weight for Kruskal-style engines.
+ * Weights in practice fall in a narrow range, so a counting sort over the range is used
+ * whenever it is not much wider than the number of edges; wide ranges fall back to a
+ * primitive sort of packed (weight, id) longs. Neither path boxes or calls a comparator.
+ */
+public final class EdgeSort {
+    // Counting sort is used while range <= max(MIN_COUNTING_RANGE, COUNTING_RANGE_FACTOR * n).
+    private static final int MIN_COUNTING_RANGE = 256;
+    private static final int COUNTING_RANGE_FACTOR = 2;
+
+    private EdgeSort() {
+    }
+
+    /** Returns the ids {@code 0..count-1} ordered by {@code weights[id]}, ties in id order. */
+    public static int[] sortedOrder(int[] weights, int count) {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = i;
+        }
+        sort(ids, 0, count, weights);
+        return ids;
+    }
+
+    /** Whether {@code count} edges whose weights span {@code range} values are sorted in linear time. */
+    public static boolean usesCountingSort(long range, int count) {
+        return range <= Math.max(MIN_COUNTING_RANGE, (long) COUNTING_RANGE_FACTOR * count);
+    }
+
+    /** Stably sorts {@code ids[lo, hi)} by {@code weights[id]}. */
+    public static void sort(int[] ids, int lo, int hi, int[] weights) {
+        int n = hi - lo;
+        if (n < 2) {
+            return;
+        }
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = lo; i < hi; i++) {
+            int w = weights[ids[i]];
+            if (w < min) min = w;
+            if (w > max) max = w;
+        }
+        long range = (long) max - min + 1;
+        if (usesCountingSort(range, n)) {
+            countingSort(ids, lo, hi, weights, min, (int) range);
+        } else {
+            primitiveSort(ids, lo, hi, weights);
+        }
+    }
+
+    private static void countingSort(int[] ids, int lo, int hi, int[] weights, int min, int range) {
+        if (range == 1) {
+            return;
+        }
+        int[] start = new int[range + 1];
+        for (int i = lo; i < hi; i++) {
+            start[weights[ids[i]] - min + 1]++;
+        }
+        for (int b = 0; b < range; b++) {
+            start[b + 1] += start[b];
+        }
+        int[] sorted = new int[hi - lo];
+        for (int i = lo; i < hi; i++) {
+            int id = ids[i];
+            sorted[start[weights[id] - min]++] = id;
+        }
+        System.arraycopy(sorted, 0, ids, lo, sorted.length);
+    }
+
+    private static void primitiveSort(int[] ids, int lo, int hi, int[] weights) {
+        // Keys keep the original position in the low bits, which makes the sort stable.
+        long[] keys = new long[hi - lo];
+        for (int i = lo; i < hi; i++) {
+            keys[i - lo] = ((long) weights[ids[i]] << 32) | (i - lo);
+        }
+        Arrays.sort(keys);
+        int[] original = Arrays.copyOfRange(ids, lo, hi);
+        for (int i = 0; i < keys.length; i++) {
+            ids[lo + i] = original[(int) keys[i]];
+        }
+    }
+}
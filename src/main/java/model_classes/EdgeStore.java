@@ -0,0 +1,198 @@
+package main.java.model_classes;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of undirected weighted edges over int node ids, kept in three parallel int
+ * arrays: 12 bytes per edge plus growth slack, with no object per edge. Edge ids are positions
+ * in insertion order until {@link #remove}, which moves the last edge into the freed id.
+ * <p>
+ * {@link #find} and {@link #remove} use an endpoint index (open addressing over the packed
+ * (min, max) node pair, one entry per edge) so both take O(1) expected time. The index is only
+ * built on the first lookup, so stores that are just filled and read, such as
+ * {@link CsrGraph.Builder}'s, never pay its 12 bytes per edge.
+ */
+public final class EdgeStore {
+    private int[] from;
+    private int[] to;
+    private int[] weight;
+    private int size;
+    private long[] indexKeys;     // packed endpoint pair per slot, EMPTY if free; null until first lookup
+    private int[] indexEdges;     // edge id stored in each slot
+
+    private static final long EMPTY = -1L;
+
+    public EdgeStore() {
+        this(16);
+    }
+
+    public EdgeStore(int expectedSize) {
+        int capacity = Math.max(4, expectedSize);
+        from = new int[capacity];
+        to = new int[capacity];
+        weight = new int[capacity];
+    }
+
+    /** Appends an edge and returns its id. */
+    public int add(int u, int v, int w) {
+        if (size == from.length) {
+            int capacity = size * 2;
+            from = Arrays.copyOf(from, capacity);
+            to = Arrays.copyOf(to, capacity);
+            weight = Arrays.copyOf(weight, capacity);
+        }
+        from[size] = u;
+        to[size] = v;
+        weight[size] = w;
+        if (indexKeys != null) {
+            if (2 * (size + 1) > indexKeys.length) {
+                resizeIndex(indexKeys.length * 2);
+            }
+            index(size);
+        }
+        return size++;
+    }
+
+    /** Removes the edge; the last edge takes over its id. */
+    public void remove(int edge) {
+        checkIndex(edge);
+        ensureIndex();
+        unindex(edge);
+        int last = --size;
+        if (edge != last) {
+            indexEdges[slotOf(last)] = edge;
+            from[edge] = from[last];
+            to[edge] = to[last];
+            weight[edge] = weight[last];
+        }
+    }
+
+    public void setWeight(int edge, int w) {
+        checkIndex(edge);
+        weight[edge] = w;
+    }
+
+    /** Id of an edge joining u and v in either direction, or -1. */
+    public int find(int u, int v) {
+        ensureIndex();
+        long key = key(u, v);
+        int mask = indexKeys.length - 1;
+        for (int slot = hash(key, mask); indexKeys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (indexKeys[slot] == key) {
+                return indexEdges[slot];
+            }
+        }
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int from(int edge) {
+        return from[edge];
+    }
+
+    public int to(int edge) {
+        return to[edge];
+    }
+
+    public int weight(int edge) {
+        return weight[edge];
+    }
+
+    // Trimmed copies of the columns, for building immutable views such as CsrGraph.
+    int[] fromArray() {
+        return Arrays.copyOf(from, size);
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(to, size);
+    }
+
+    int[] weightArray() {
+        return Arrays.copyOf(weight, size);
+    }
+
+    // Columns without copying; only the first size() entries are meaningful.
+    int[] fromColumn() {
+        return from;
+    }
+
+    int[] toColumn() {
+        return to;
+    }
+
+    int[] weightColumn() {
+        return weight;
+    }
+
+    private static long key(int u, int v) {
+        return ((long) Math.min(u, v) << 32) | Math.max(u, v);
+    }
+
+    private static int hash(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void ensureIndex() {
+        if (indexKeys == null) {
+            resizeIndex(Integer.highestOneBit(Math.max(4, size) * 2 - 1) << 1);
+        }
+    }
+
+    // Rebuilds the index over edges [0, size) with at least two slots per edge.
+    private void resizeIndex(int capacity) {
+        indexKeys = new long[capacity];
+        indexEdges = new int[capacity];
+        Arrays.fill(indexKeys, EMPTY);
+        for (int e = 0; e < size; e++) {
+            index(e);
+        }
+    }
+
+    // Adds edge e, whose columns are already written, to the index.
+    private void index(int e) {
+        long key = key(from[e], to[e]);
+        int mask = indexKeys.length - 1;
+        int slot = hash(key, mask);
+        while (indexKeys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        indexKeys[slot] = key;
+        indexEdges[slot] = e;
+    }
+
+    // Slot of the index entry for edge e; parallel edges share a key, so the edge id decides.
+    private int slotOf(int e) {
+        long key = key(from[e], to[e]);
+        int mask = indexKeys.length - 1;
+        int slot = hash(key, mask);
+        while (indexKeys[slot] != key || indexEdges[slot] != e) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Deletes edge e's entry, shifting later entries of the probe run back into the hole.
+    private void unindex(int e) {
+        int mask = indexKeys.length - 1;
+        int hole = slotOf(e);
+        for (int slot = (hole + 1) & mask; indexKeys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            int home = hash(indexKeys[slot], mask);
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                indexKeys[hole] = indexKeys[slot];
+                indexEdges[hole] = indexEdges[slot];
+                hole = slot;
+            }
+        }
+        indexKeys[hole] = EMPTY;
+    }
+
+    private void checkIndex(int edge) {
+        if (edge < 0 || edge >= size) {
+            throw new IndexOutOfBoundsException("No edge " + edge);
+        }
+    }
+}
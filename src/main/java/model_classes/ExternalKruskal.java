@@ -0,0 +1,205 @@
+package main.java.model_classes;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Out-of-core Kruskal for edge lists that do not fit on the heap.
+ * Edges are read from an {@link EdgeSource} into a buffer sized by the memory budget; each full
+ * buffer is sorted by weight and spilled to a run file in the working directory. The runs are then
+ * k-way merged back as one weight-ordered stream and fed through a union-find of size O(V), so at
+ * most one buffer of edges is resident at a time. If everything fits in one buffer nothing is
+ * written to disk.
+ */
+public class ExternalKruskal {
+    /**
+     * Supplies edges in chunks: writes up to {@code max} edges starting at {@code offset} and
+     * returns how many were written, 0 once the source is exhausted.
+     */
+    public interface EdgeSource {
+        int read(int[] from, int[] to, int[] weight, int offset, int max) throws IOException;
+    }
+
+    private interface EdgeConsumer {
+        /** Returns false to stop the stream early. */
+        boolean accept(int from, int to, int weight) throws IOException;
+    }
+
+    // Bytes of budget per buffered edge: three int columns (12), the sort order (4) and the larger
+    // EdgeSort scratch, which is a packed long key plus a copy of the order (12) for wide weights.
+    private static final int BYTES_PER_BUFFERED_EDGE = 28;
+    private static final int MIN_BUFFER_EDGES = 1024;
+    private static final int MAX_FAN_IN = 128;
+
+    private final Path workDir;
+    private final long memoryBudgetBytes;
+
+    public ExternalKruskal(Path workDir, long memoryBudgetBytes) {
+        this.workDir = workDir;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    public Graph.MSTResult compute(String[] labels, EdgeSource source) throws IOException {
+        Graph.MSTResult result = new Graph.MSTResult();
+        result.mstEdges = new ArrayList<>();
+        result.totalCost = 0;
+        int n = labels.length;
+        int bufferEdges = (int) Math.max(MIN_BUFFER_EDGES,
+                Math.min(Integer.MAX_VALUE - 8, memoryBudgetBytes / BYTES_PER_BUFFERED_EDGE));
+        int[] from = new int[bufferEdges];
+        int[] to = new int[bufferEdges];
+        int[] weight = new int[bufferEdges];
+
+        DisjointSet sets = new DisjointSet(n);
+        int[] mstFrom = new int[Math.max(n - 1, 0)];
+        int[] mstTo = new int[mstFrom.length];
+        int[] mstWeight = new int[mstFrom.length];
+        int[] chosenCount = {0};
+        long[] ops = {0};
+        EdgeConsumer kruskal = (u, v, w) -> {
+            int rootU = sets.find(u);
+            int rootV = sets.find(v);
+            ops[0] += 3;
+            if (rootU != rootV) {
+                sets.linkRoots(rootU, rootV);
+                ops[0]++;
+                int c = chosenCount[0]++;
+                mstFrom[c] = u;
+                mstTo[c] = v;
+                mstWeight[c] = w;
+            }
+            return chosenCount[0] < n - 1;
+        };
+
+        List<Path> runs = new ArrayList<>();
+        long startTime = System.nanoTime();
+        try {
+            int count = fill(source, from, to, weight);
+            if (count < bufferEdges) {
+                // Fits in memory: sort once and scan, no spilling.
+                int[] order = EdgeSort.sortedOrder(weight, count);
+                ops[0] += count;
+                for (int i = 0; i < count && n > 1; i++) {
+                    int e = order[i];
+                    if (!kruskal.accept(from[e], to[e], weight[e])) {
+                        break;
+                    }
+                }
+            } else {
+                while (count > 0) {
+                    runs.add(writeRun(from, to, weight, count));
+                    ops[0] += count;
+                    count = fill(source, from, to, weight);
+                }
+                while (runs.size() > MAX_FAN_IN) {
+                    List<Path> group = new ArrayList<>(runs.subList(0, MAX_FAN_IN));
+                    runs.subList(0, MAX_FAN_IN).clear();
+                    Path merged = Files.createTempFile(workDir, "mst-run", ".bin");
+                    try (DataOutputStream out = openRun(merged)) {
+                        merge(group, (u, v, w) -> {
+                            out.writeInt(u);
+                            out.writeInt(v);
+                            out.writeInt(w);
+                            return true;
+                        });
+                    }
+                    for (Path p : group) {
+                        Files.deleteIfExists(p);
+                    }
+                    runs.add(merged);
+                }
+                if (n > 1) {
+                    merge(runs, kruskal);
+                }
+            }
+        } finally {
+            for (Path p : runs) {
+                Files.deleteIfExists(p);
+            }
+        }
+        long endTime = System.nanoTime();
+
+        for (int i = 0; i < chosenCount[0]; i++) {
+            result.mstEdges.add(new Edge(labels[mstFrom[i]], labels[mstTo[i]], mstWeight[i]));
+            result.totalCost += mstWeight[i];
+        }
+        result.operationsCount = ops[0];
+        result.executionTimeMs = Math.round((endTime - startTime) / 1e4) / 100.0;
+        return result;
+    }
+
+    // Reads until the buffer is full or the source is exhausted.
+    private static int fill(EdgeSource source, int[] from, int[] to, int[] weight) throws IOException {
+        int count = 0;
+        while (count < from.length) {
+            int read = source.read(from, to, weight, count, from.length - count);
+            if (read <= 0) {
+                break;
+            }
+            count += read;
+        }
+        return count;
+    }
+
+    private DataOutputStream openRun(Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+    }
+
+    private Path writeRun(int[] from, int[] to, int[] weight, int count) throws IOException {
+        int[] order = EdgeSort.sortedOrder(weight, count);
+        Path file = Files.createTempFile(workDir, "mst-run", ".bin");
+        try (DataOutputStream out = openRun(file)) {
+            for (int i = 0; i < count; i++) {
+                int e = order[i];
+                out.writeInt(from[e]);
+                out.writeInt(to[e]);
+                out.writeInt(weight[e]);
+            }
+        }
+        return file;
+    }
+
+    // Streams the union of the sorted runs in weight order into the consumer.
+    private void merge(List<Path> runs, EdgeConsumer consumer) throws IOException {
+        int k = runs.size();
+        int readBuffer = (int) Math.max(1 << 12, Math.min(1 << 20, memoryBudgetBytes / Math.max(1, 2L * k)));
+        DataInputStream[] inputs = new DataInputStream[k];
+        int[] headFrom = new int[k];
+        int[] headTo = new int[k];
+        IndexedDaryHeap heap = new IndexedDaryHeap(k, 4);
+        try {
+            for (int r = 0; r < k; r++) {
+                inputs[r] = new DataInputStream(new BufferedInputStream(Files.newInputStream(runs.get(r)), readBuffer));
+                advance(inputs[r], r, heap, headFrom, headTo);
+            }
+            while (!heap.isEmpty()) {
+                int r = heap.pollMin();
+                int w = heap.keyOf(r);
+                if (!consumer.accept(headFrom[r], headTo[r], w)) {
+                    return;
+                }
+                advance(inputs[r], r, heap, headFrom, headTo);
+            }
+        } finally {
+            for (DataInputStream in : inputs) {
+                if (in != null) {
+                    in.close();
+                }
+            }
+        }
+    }
+
+    private static void advance(DataInputStream in, int run, IndexedDaryHeap heap, int[] headFrom, int[] headTo)
+            throws IOException {
+        try {
+            headFrom[run] = in.readInt();
+        } catch (EOFException end) {
+            return;
+        }
+        headTo[run] = in.readInt();
+        heap.insert(run, in.readInt());
+    }
+}
@@ -4,21 +4,21 @@ import main.java.Main;
 
 import java.util.*;
 
+/**
+ * Mutable undirected weighted graph addressed by node label. Labels are interned once in a
+ * {@link SymbolTable} and edges are kept as int ids in an {@link EdgeStore}, so the graph holds
+ * one String per node and no object per edge; {@link Edge} objects are only created for results.
+ */
 public class Graph {
-    private final List<String> nodes;
-    private final Map<String, List<Edge>> adjacency;
-    private final List<Edge> edges;
-    private final Map<String, Integer> nodeIndex;  // maps node label to index for internal use
+    private final SymbolTable symbols;
+    private final EdgeStore edges;
+    private DynamicMST dynamicMST;                  // kept in sync with edge updates once requested
 
     public Graph(List<String> nodes) {
-        this.nodes = new ArrayList<>(nodes);
-        this.adjacency = new HashMap<>();
-        this.edges = new ArrayList<>();
-        this.nodeIndex = new HashMap<>();
-        for (int i = 0; i < nodes.size(); i++) {
-            String label = nodes.get(i);
-            nodeIndex.put(label, i);
-            adjacency.put(label, new ArrayList<>());
+        this.symbols = new SymbolTable(nodes.size());
+        this.edges = new EdgeStore();
+        for (String label : nodes) {
+            symbols.intern(label);
         }
     }
 
@@ -30,25 +30,102 @@ public class Graph {
     }
 
     public void addEdge(String from, String to, int weight) {
-        Edge edge = new Edge(from, to, weight);
-        edges.add(edge);
-        adjacency.get(from).add(edge);
-        adjacency.get(to).add(edge);
+        int u = symbols.id(from);
+        int v = symbols.id(to);
+        if (u < 0 || v < 0) {
+            throw new IllegalArgumentException("Unknown node in edge " + from + "-" + to);
+        }
+        edges.add(u, v, weight);
+        if (dynamicMST != null) {
+            dynamicMST.addEdge(symbols.label(u), symbols.label(v), weight);
+        }
+    }
+
+    /** Removes one edge between the two nodes (in either direction); returns false if none exists. */
+    public boolean removeEdge(String from, String to) {
+        int edge = findEdge(from, to);
+        if (edge < 0) {
+            return false;
+        }
+        Edge removed = toEdge(edge);
+        edges.remove(edge);
+        if (dynamicMST != null) {
+            dynamicMST.removeEdge(dynamicMST.findEdge(removed.from, removed.to, removed.weight));
+        }
+        return true;
+    }
+
+    /** Changes the weight of one edge between the two nodes; returns false if none exists. */
+    public boolean updateWeight(String from, String to, int weight) {
+        int edge = findEdge(from, to);
+        if (edge < 0) {
+            return false;
+        }
+        Edge old = toEdge(edge);
+        edges.setWeight(edge, weight);
+        if (dynamicMST != null) {
+            dynamicMST.updateWeight(dynamicMST.findEdge(old.from, old.to, old.weight), weight);
+        }
+        return true;
+    }
+
+    private int findEdge(String from, String to) {
+        int u = symbols.id(from);
+        int v = symbols.id(to);
+        return u < 0 || v < 0 ? -1 : edges.find(u, v);
+    }
+
+    private Edge toEdge(int edge) {
+        return new Edge(symbols.label(edges.from(edge)), symbols.label(edges.to(edge)), edges.weight(edge));
+    }
+
+    /**
+     * Minimum spanning forest kept up to date across addEdge, removeEdge and updateWeight.
+     * The first call builds it; later edge changes update it without a full recompute.
+     */
+    public MSTResult currentMST() {
+        if (dynamicMST == null) {
+            dynamicMST = DynamicMST.fromGraph(this);
+        }
+        return dynamicMST.currentResult();
+    }
+
+    /** Total weight of {@link #currentMST()} without building the edge list snapshot. */
+    public long currentMSTCost() {
+        if (dynamicMST == null) {
+            dynamicMST = DynamicMST.fromGraph(this);
+        }
+        return dynamicMST.getTotalCost();
     }
 
     public int getVertexCount() {
-        return nodes.size();
+        return symbols.size();
     }
 
     public int getEdgeCount() {
         return edges.size();
     }
 
+    public CsrGraph toCsr() {
+        return CsrGraph.of(symbols, edges);
+    }
+
     public static class MSTResult {
         public List<Edge> mstEdges;
         public int totalCost;
         public long operationsCount;
         public double executionTimeMs;
+        public int peakHeapSize;
+        public List<ComponentResult> components;  // set by the spanning-forest mode, one per component
+        public MSTStats stats;                     // only with -Dmst.stats=true
+        public MSTAlgorithm algorithm;             // engine picked by automatic selection, otherwise null
+    }
+
+    /** Spanning tree of one connected component within a spanning-forest result. */
+    public static class ComponentResult {
+        public int vertices;
+        public List<Edge> mstEdges;
+        public int totalCost;
     }
 
     public MSTResult computePrimMST() {
@@ -56,130 +133,173 @@ public class Graph {
         result.mstEdges = new ArrayList<>();
         result.totalCost = 0;
         long ops = 0;
-        final long[] compOps = {0};
+        MSTStats stats = MSTStats.start("graph-prim");
 
-        Comparator<Edge> comp = (e1, e2) -> {
-            compOps[0]++;
-            return Integer.compare(e1.weight, e2.weight);
-        };
-        PriorityQueue<Edge> pq = new PriorityQueue<>(comp);
-
-        boolean[] visited = new boolean[nodes.size()];
-        if (nodes.isEmpty()) {
+        int n = symbols.size();
+        if (n == 0) {
             result.operationsCount = 0;
             result.executionTimeMs = 0.0;
             return result;
         }
-        String startLabel = nodes.get(0);
-        visited[nodeIndex.get(startLabel)] = true;
+        // Edge ids per node, rebuilt per call so the graph itself keeps no adjacency.
+        int m = edges.size();
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            offsets[edges.from(e) + 1]++;
+            offsets[edges.to(e) + 1]++;
+        }
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+        int[] incident = new int[2 * m];
+        int[] next = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < m; e++) {
+            incident[next[edges.from(e)]++] = e;
+            incident[next[edges.to(e)]++] = e;
+        }
+        // Heap of (weight, edge id) keys; ties resolve to the lower edge id.
+        long[] heap = new long[16];
+        int heapSize = 0;
+
+        boolean[] visited = new boolean[n];
+        visited[0] = true;
         int visitedCount = 1;
+        int current = 0;
 
         long startTime = System.nanoTime();
-        for (Edge e : adjacency.get(startLabel)) {
-            ops++;
-            String other = e.from.equals(startLabel) ? e.to : e.from;
-            if (!visited[nodeIndex.get(other)]) {
-                pq.add(e);
+        if (MSTStats.ENABLED) stats.lap(MSTStats.Phase.BUILD);
+        while (true) {
+            for (int slot = offsets[current]; slot < offsets[current + 1]; slot++) {
                 ops++;
+                int e = incident[slot];
+                int other = edges.from(e) == current ? edges.to(e) : edges.from(e);
+                if (!visited[other]) {
+                    if (heapSize == heap.length) {
+                        heap = Arrays.copyOf(heap, heapSize * 2);
+                    }
+                    CsrGraph.siftUp(heap, heapSize++, CsrGraph.key(edges.weight(e), e));
+                    ops++;
+                    if (MSTStats.ENABLED) stats.heapPushes++;
+                }
             }
-        }
-
-        while (!pq.isEmpty() && visitedCount < nodes.size()) {
-            Edge edge = pq.poll();
-            ops++;
-            int uIndex = nodeIndex.get(edge.from);
-            int vIndex = nodeIndex.get(edge.to);
-            if (visited[uIndex] && visited[vIndex]) {
-                ops++;
-                continue;
+            result.peakHeapSize = Math.max(result.peakHeapSize, heapSize);
+            if (visitedCount == n) {
+                break;
             }
-            result.mstEdges.add(edge);
-            result.totalCost += edge.weight;
-            ops++;
-            int newIndex = visited[uIndex] ? vIndex : uIndex;
-            visited[newIndex] = true;
-            visitedCount++;
-
-            String newNodeLabel = nodes.get(newIndex);
-            for (Edge e : adjacency.get(newNodeLabel)) {
+            int edge = -1;
+            while (heapSize > 0) {
+                int e = CsrGraph.keyEdge(heap[0]);
+                heapSize--;
+                if (heapSize > 0) {
+                    CsrGraph.siftDown(heap, heapSize, heap[heapSize]);
+                }
                 ops++;
-                String other = e.from.equals(newNodeLabel) ? e.to : e.from;
-                int otherIndex = nodeIndex.get(other);
-                if (!visited[otherIndex]) {
-                    pq.add(e);
+                if (MSTStats.ENABLED) stats.heapPops++;
+                if (visited[edges.from(e)] && visited[edges.to(e)]) {
                     ops++;
+                    if (MSTStats.ENABLED) stats.stalePops++;
+                    continue;
                 }
+                edge = e;
+                break;
+            }
+            if (edge < 0) {
+                break;
             }
+            result.mstEdges.add(toEdge(edge));
+            result.totalCost += edges.weight(edge);
+            ops++;
+            current = visited[edges.from(edge)] ? edges.to(edge) : edges.from(edge);
+            visited[current] = true;
+            visitedCount++;
         }
         long endTime = System.nanoTime();
+        if (MSTStats.ENABLED) stats.lap(MSTStats.Phase.LOOP);
 
         Collections.sort(result.mstEdges);
-        result.operationsCount = ops + compOps[0];
+        if (MSTStats.ENABLED) {
+            stats.lap(MSTStats.Phase.FINAL_SORT);
+            stats.finish(result);
+        }
+        result.operationsCount = ops;
         result.executionTimeMs = Math.round((endTime - startTime) / 1e4) / 100.0;
         return result;
     }
 
+    /**
+     * Eager Prim with an indexed d-ary heap and decrease-key (arity 2 = binary heap, 4 = 4-ary).
+     * Runs on the CSR view of this graph; the heap holds at most V entries.
+     */
+    public MSTResult computeEagerPrimMST(int heapArity) {
+        return toCsr().computeEagerPrimMST(heapArity);
+    }
+
+    public MSTResult computeFilterKruskalMST() {
+        return toCsr().computeFilterKruskalMST();
+    }
+
+    public MSTResult computeBoruvkaMST() {
+        return toCsr().computeBoruvkaMST();
+    }
+
+    public MSTResult computeMST(MSTAlgorithm algorithm) {
+        switch (algorithm) {
+            case PRIM:
+                return computePrimMST();
+            case KRUSKAL:
+                return computeKruskalMST();
+            default:
+                return toCsr().computeMST(algorithm);
+        }
+    }
+
+    /** Minimum spanning forest with one tree per connected component; see {@link CsrGraph#computeSpanningForest}. */
+    public MSTResult computeSpanningForest(MSTAlgorithm algorithm) {
+        return toCsr().computeSpanningForest(algorithm);
+    }
+
     public MSTResult computeKruskalMST() {
         MSTResult result = new MSTResult();
         result.mstEdges = new ArrayList<>();
         result.totalCost = 0;
-        final long[] ops = {0};
-        final long[] compOps = {0};
-
-        Edge[] edgeArray = edges.toArray(new Edge[0]);
-        compOps[0] = 0;
-        Arrays.sort(edgeArray, (e1, e2) -> {
-            compOps[0]++;
-            return Integer.compare(e1.weight, e2.weight);
-        });
-
-        int n = nodes.size();
-        int[] parent = new int[n];
-        int[] rank = new int[n];
-        for (int i = 0; i < n; i++) {
-            parent[i] = i;
-            rank[i] = 0;
-        }
-        class UF {
-            int find(int x) {
-                ops[0]++;
-                if (parent[x] != x) {
-                    parent[x] = find(parent[x]);
-                }
-                return parent[x];
-            }
-            void union(int x, int y) {
-                if (rank[x] < rank[y]) {
-                    parent[x] = y;
-                } else if (rank[y] < rank[x]) {
-                    parent[y] = x;
-                } else {
-                    parent[y] = x;
-                    rank[x]++;
-                }
-            }
-        }
-        UF uf = new UF();
+        long ops = 0;
+        MSTStats stats = MSTStats.start("graph-kruskal");
 
         long startTime = System.nanoTime();
-        for (Edge edge : edgeArray) {
-            int u = nodeIndex.get(edge.from);
-            int v = nodeIndex.get(edge.to);
-            int rootU = uf.find(u);
-            int rootV = uf.find(v);
-            ops[0]++;
+        int m = edges.size();
+        int n = symbols.size();
+        DisjointSet sets = new DisjointSet(n);
+        sets.setStats(stats);
+        if (MSTStats.ENABLED) stats.lap(MSTStats.Phase.BUILD);
+
+        int[] order = EdgeSort.sortedOrder(edges.weightColumn(), m);
+        ops += m;
+        if (MSTStats.ENABLED) stats.lap(MSTStats.Phase.SORT);
+
+        for (int idx : order) {
+            if (result.mstEdges.size() == n - 1) {
+                break;
+            }
+            int rootU = sets.find(edges.from(idx));
+            int rootV = sets.find(edges.to(idx));
+            ops += 3;
             if (rootU != rootV) {
-                uf.union(rootU, rootV);
-                ops[0]++;
-                result.mstEdges.add(edge);
-                result.totalCost += edge.weight;
+                sets.linkRoots(rootU, rootV);
+                ops++;
+                result.mstEdges.add(toEdge(idx));
+                result.totalCost += edges.weight(idx);
             }
         }
         long endTime = System.nanoTime();
+        if (MSTStats.ENABLED) stats.lap(MSTStats.Phase.LOOP);
 
         Collections.sort(result.mstEdges);
-        result.operationsCount = ops[0] + compOps[0];
+        if (MSTStats.ENABLED) {
+            stats.lap(MSTStats.Phase.FINAL_SORT);
+            stats.finish(result);
+        }
+        result.operationsCount = ops;
         result.executionTimeMs = Math.round((endTime - startTime) / 1e4) / 100.0;
         return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,18 @@
+package main.java.model_classes;
+
+import java.io.IOException;
+
+/**
+ * Receives a graph one node and one edge at a time, so parsers and generators can feed either an
+ * in-memory {@link CsrGraph.Builder} or a {@link BinaryGraphFile.Writer} that never holds the edges.
+ */
+public interface GraphSink {
+    /** Id of the label, assigning the next free id if it is new. */
+    int addNode(String label);
+
+    /** Id of a label added with {@link #addNode}, or -1 if it was never added. */
+    int nodeId(String label);
+
+    /** Adds an edge between two ids returned by {@link #addNode}. */
+    void addEdge(int u, int v, int weight) throws IOException;
+}
@@ -0,0 +1,116 @@
+package main.java.model_classes;
+
+import java.util.Arrays;
+
+/**
+ * Indexed min-heap over item ids {@code 0..capacity-1} with int keys and decrease-key.
+ * Each item is present at most once, so the heap never grows beyond the number of items.
+ * The arity is configurable: 2 gives a binary heap, 4 trades a few extra comparisons per
+ * level for a shallower, more cache-friendly tree.
+ */
+public final class IndexedDaryHeap {
+    private final int arity;
+    private final int[] heap;      // heap slot -> item
+    private final int[] position;  // item -> heap slot, or -1 when absent
+    private final int[] keys;      // item -> key
+    private int size;
+
+    public IndexedDaryHeap(int capacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Heap arity must be at least 2, got " + arity);
+        }
+        this.arity = arity;
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new int[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int item) {
+        return position[item] >= 0;
+    }
+
+    public int keyOf(int item) {
+        return keys[item];
+    }
+
+    public void insert(int item, int key) {
+        keys[item] = key;
+        heap[size] = item;
+        position[item] = size;
+        siftUp(size++);
+    }
+
+    public void decreaseKey(int item, int key) {
+        keys[item] = key;
+        siftUp(position[item]);
+    }
+
+    public int pollMin() {
+        int min = heap[0];
+        position[min] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    private void siftUp(int pos) {
+        int item = heap[pos];
+        int key = keys[item];
+        while (pos > 0) {
+            int parent = (pos - 1) / arity;
+            int parentItem = heap[parent];
+            if (keys[parentItem] <= key) {
+                break;
+            }
+            heap[pos] = parentItem;
+            position[parentItem] = pos;
+            pos = parent;
+        }
+        heap[pos] = item;
+        position[item] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int item = heap[pos];
+        int key = keys[item];
+        while (true) {
+            int first = pos * arity + 1;
+            if (first >= size) {
+                break;
+            }
+            int last = Math.min(first + arity, size);
+            int best = first;
+            int bestKey = keys[heap[first]];
+            for (int c = first + 1; c < last; c++) {
+                int k = keys[heap[c]];
+                if (k < bestKey) {
+                    best = c;
+                    bestKey = k;
+                }
+            }
+            if (key <= bestKey) {
+                break;
+            }
+            int bestItem = heap[best];
+            heap[pos] = bestItem;
+            position[bestItem] = pos;
+            pos = best;
+        }
+        heap[pos] = item;
+        position[item] = pos;
+    }
+}
@@ -0,0 +1,176 @@
+package main.java.model_classes;
+
+/**
+ * Array-based link-cut tree over nodes {@code 0..capacity-1}, each carrying an int value.
+ * Every operation is amortized O(log n). {@link #pathMax} returns the node with the largest
+ * value on a tree path, which is what MST maintenance needs when edges are modelled as nodes
+ * of their own between their two endpoints.
+ */
+public final class LinkCutTree {
+    private static final int NONE = -1;
+
+    private final int[] left;
+    private final int[] right;
+    private final int[] parent;   // splay parent, or path-parent when this node is a splay root
+    private final int[] value;
+    private final int[] best;     // node with the largest value in this splay subtree
+    private final boolean[] flip;
+    private final int[] stack;
+
+    public LinkCutTree(int capacity) {
+        left = new int[capacity];
+        right = new int[capacity];
+        parent = new int[capacity];
+        value = new int[capacity];
+        best = new int[capacity];
+        flip = new boolean[capacity];
+        stack = new int[capacity];
+        reset(0, capacity);
+    }
+
+    private void reset(int from, int to) {
+        for (int x = from; x < to; x++) {
+            left[x] = NONE;
+            right[x] = NONE;
+            parent[x] = NONE;
+            value[x] = Integer.MIN_VALUE;
+            best[x] = x;
+            flip[x] = false;
+        }
+    }
+
+    public int getValue(int x) {
+        return value[x];
+    }
+
+    /** Sets the value of a node; the node may be part of a tree. */
+    public void setValue(int x, int newValue) {
+        access(x);
+        value[x] = newValue;
+        pull(x);
+    }
+
+    public boolean connected(int u, int v) {
+        return u == v || findRoot(u) == findRoot(v);
+    }
+
+    /** Adds the tree edge u-v; u and v must be in different trees. */
+    public void link(int u, int v) {
+        makeRoot(u);
+        parent[u] = v;
+    }
+
+    /** Removes the tree edge u-v, which must exist. */
+    public void cut(int u, int v) {
+        makeRoot(u);
+        access(v);
+        // After access(v) with u as root, u is v's left child when u-v is a tree edge.
+        left[v] = NONE;
+        parent[u] = NONE;
+        pull(v);
+    }
+
+    /** Node with the largest value on the path u..v; u and v must be connected. */
+    public int pathMax(int u, int v) {
+        makeRoot(u);
+        access(v);
+        return best[v];
+    }
+
+    private boolean isSplayRoot(int x) {
+        int p = parent[x];
+        return p == NONE || (left[p] != x && right[p] != x);
+    }
+
+    private void push(int x) {
+        if (flip[x]) {
+            int l = left[x];
+            left[x] = right[x];
+            right[x] = l;
+            if (left[x] != NONE) flip[left[x]] ^= true;
+            if (right[x] != NONE) flip[right[x]] ^= true;
+            flip[x] = false;
+        }
+    }
+
+    private void pull(int x) {
+        int b = x;
+        int l = left[x];
+        int r = right[x];
+        if (l != NONE && value[best[l]] > value[b]) b = best[l];
+        if (r != NONE && value[best[r]] > value[b]) b = best[r];
+        best[x] = b;
+    }
+
+    private void rotate(int x) {
+        int p = parent[x];
+        int g = parent[p];
+        boolean pWasRoot = isSplayRoot(p);
+        if (left[p] == x) {
+            left[p] = right[x];
+            if (right[x] != NONE) parent[right[x]] = p;
+            right[x] = p;
+        } else {
+            right[p] = left[x];
+            if (left[x] != NONE) parent[left[x]] = p;
+            left[x] = p;
+        }
+        parent[p] = x;
+        parent[x] = g;
+        if (!pWasRoot) {
+            if (left[g] == p) left[g] = x;
+            else right[g] = x;
+        }
+        pull(p);
+        pull(x);
+    }
+
+    private void splay(int x) {
+        int top = 0;
+        stack[top++] = x;
+        for (int y = x; !isSplayRoot(y); y = parent[y]) {
+            stack[top++] = parent[y];
+        }
+        while (top > 0) {
+            push(stack[--top]);
+        }
+        while (!isSplayRoot(x)) {
+            int p = parent[x];
+            if (!isSplayRoot(p)) {
+                int g = parent[p];
+                boolean zigZig = (left[g] == p) == (left[p] == x);
+                rotate(zigZig ? p : x);
+            }
+            rotate(x);
+        }
+    }
+
+    private void access(int x) {
+        int last = NONE;
+        for (int y = x; y != NONE; y = parent[y]) {
+            splay(y);
+            right[y] = last;
+            pull(y);
+            last = y;
+        }
+        splay(x);
+    }
+
+    private void makeRoot(int x) {
+        access(x);
+        flip[x] ^= true;
+        push(x);
+    }
+
+    private int findRoot(int x) {
+        access(x);
+        int r = x;
+        push(r);
+        while (left[r] != NONE) {
+            r = left[r];
+            push(r);
+        }
+        splay(r);
+        return r;
+    }
+}
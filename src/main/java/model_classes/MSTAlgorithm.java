@@ -0,0 +1,10 @@
+package main.java.model_classes;
+
+/** MST engines that {@link Graph#computeMST} and {@link CsrGraph#computeMST} can dispatch to. */
+public enum MSTAlgorithm {
+    PRIM,
+    EAGER_PRIM,
+    KRUSKAL,
+    FILTER_KRUSKAL,
+    BORUVKA
+}
@@ -0,0 +1,238 @@
+package main.java.model_classes;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only query index over a minimum spanning tree or forest, built once from an
+ * {@link Graph.MSTResult}. Every tree is rooted and a binary-lifting table stores, for each
+ * vertex and each power of two, the ancestor that far up and the heaviest edge on the way.
+ * The heaviest edge on any tree path (the bottleneck between two nodes) then takes O(log V),
+ * and by the cycle property a candidate edge improves the tree exactly when it is lighter than
+ * that bottleneck. Building is O(V log V) time and memory.
+ * <p>
+ * The index never changes after construction, so queries may run from any number of threads;
+ * the batch methods split large batches across the common fork-join pool.
+ */
+public final class MSTQueryIndex {
+    /** Returned by {@link #pathMax} when the two nodes are in different trees. */
+    public static final int NO_PATH = Integer.MIN_VALUE;
+    /** Returned by {@link #pathMax} for a node and itself, whose path has no edges. */
+    public static final int EMPTY_PATH = Integer.MIN_VALUE + 1;
+
+    // Batches at least this large are answered in parallel.
+    private static final int PARALLEL_BATCH = 1 << 14;
+
+    private final SymbolTable symbols = new SymbolTable();
+    private final int[] tree;       // tree (component) id of each vertex
+    private final int[] depth;
+    private final int[][] up;       // up[k][v]: ancestor 2^k levels above v, or the root
+    private final int[][] maxUp;    // maxUp[k][v]: heaviest edge weight on that stretch
+
+    public MSTQueryIndex(Graph.MSTResult result) {
+        this(result.mstEdges, Collections.emptyList());
+    }
+
+    /** Index over the given tree edges; {@code extraNodes} adds vertices that have no tree edge. */
+    public MSTQueryIndex(List<Edge> treeEdges, List<String> extraNodes) {
+        for (Edge e : treeEdges) {
+            symbols.intern(e.from);
+            symbols.intern(e.to);
+        }
+        for (String label : extraNodes) {
+            symbols.intern(label);
+        }
+        int n = symbols.size();
+
+        // Adjacency of the forest in CSR form.
+        int m = treeEdges.size();
+        int[] offsets = new int[n + 1];
+        int[] from = new int[m];
+        int[] to = new int[m];
+        for (int i = 0; i < m; i++) {
+            Edge e = treeEdges.get(i);
+            from[i] = symbols.id(e.from);
+            to[i] = symbols.id(e.to);
+            offsets[from[i] + 1]++;
+            offsets[to[i] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] adjTarget = new int[2 * m];
+        int[] adjWeight = new int[2 * m];
+        int[] next = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < m; i++) {
+            int w = treeEdges.get(i).weight;
+            adjTarget[next[from[i]]] = to[i];
+            adjWeight[next[from[i]]++] = w;
+            adjTarget[next[to[i]]] = from[i];
+            adjWeight[next[to[i]]++] = w;
+        }
+
+        int levels = 1;
+        while ((1 << levels) < n) {
+            levels++;
+        }
+        tree = new int[n];
+        depth = new int[n];
+        up = new int[levels][n];
+        maxUp = new int[levels][n];
+        Arrays.fill(tree, -1);
+
+        // Iterative BFS from every unvisited vertex roots each tree of the forest.
+        int[] queue = new int[n];
+        int trees = 0;
+        for (int root = 0; root < n; root++) {
+            if (tree[root] >= 0) {
+                continue;
+            }
+            tree[root] = trees;
+            up[0][root] = root;
+            maxUp[0][root] = NO_PATH;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = root;
+            while (head < tail) {
+                int u = queue[head++];
+                for (int slot = offsets[u]; slot < offsets[u + 1]; slot++) {
+                    int v = adjTarget[slot];
+                    if (tree[v] < 0) {
+                        tree[v] = trees;
+                        depth[v] = depth[u] + 1;
+                        up[0][v] = u;
+                        maxUp[0][v] = adjWeight[slot];
+                        queue[tail++] = v;
+                    }
+                }
+            }
+            trees++;
+        }
+        for (int k = 1; k < levels; k++) {
+            int[] prevUp = up[k - 1];
+            int[] prevMax = maxUp[k - 1];
+            int[] curUp = up[k];
+            int[] curMax = maxUp[k];
+            for (int v = 0; v < n; v++) {
+                int mid = prevUp[v];
+                curUp[v] = prevUp[mid];
+                curMax[v] = Math.max(prevMax[v], prevMax[mid]);
+            }
+        }
+    }
+
+    public int getVertexCount() {
+        return symbols.size();
+    }
+
+    /** Vertex id of a label, for the int-based batch queries. */
+    public int id(String label) {
+        int id = symbols.id(label);
+        if (id < 0) {
+            throw new IllegalArgumentException("Unknown node: " + label);
+        }
+        return id;
+    }
+
+    public String label(int id) {
+        return symbols.label(id);
+    }
+
+    public boolean connected(String a, String b) {
+        return tree[id(a)] == tree[id(b)];
+    }
+
+    /**
+     * Heaviest edge weight on the tree path between a and b, {@link #EMPTY_PATH} if a equals b and
+     * {@link #NO_PATH} across trees. Edge weights are assumed to lie above both sentinels.
+     */
+    public int pathMax(String a, String b) {
+        return pathMax(id(a), id(b));
+    }
+
+    public int pathMax(int u, int v) {
+        if (tree[u] != tree[v]) {
+            return NO_PATH;
+        }
+        if (u == v) {
+            return EMPTY_PATH;
+        }
+        int best = NO_PATH;
+        if (depth[u] < depth[v]) {
+            int t = u;
+            u = v;
+            v = t;
+        }
+        int diff = depth[u] - depth[v];
+        for (int k = 0; diff != 0; k++, diff >>>= 1) {
+            if ((diff & 1) != 0) {
+                best = Math.max(best, maxUp[k][u]);
+                u = up[k][u];
+            }
+        }
+        if (u == v) {
+            return best;
+        }
+        for (int k = up.length - 1; k >= 0; k--) {
+            if (up[k][u] != up[k][v]) {
+                best = Math.max(best, Math.max(maxUp[k][u], maxUp[k][v]));
+                u = up[k][u];
+                v = up[k][v];
+            }
+        }
+        return Math.max(best, Math.max(maxUp[0][u], maxUp[0][v]));
+    }
+
+    /**
+     * Whether adding the edge a-b with the given weight would give a cheaper spanning forest:
+     * true when it is lighter than the bottleneck it would replace, or joins two separate trees.
+     */
+    public boolean improves(String a, String b, int weight) {
+        return improves(id(a), id(b), weight);
+    }
+
+    public boolean improves(int u, int v, int weight) {
+        if (u == v) {
+            return false;
+        }
+        int max = pathMax(u, v);
+        return max == NO_PATH || weight < max;
+    }
+
+    /**
+     * Cost reduction from adding the edge a-b and dropping the bottleneck it replaces. Returns 0
+     * when no tree edge would be dropped: the edge is not lighter than the bottleneck, a equals b,
+     * or a and b are in different trees (the edge would join them and cost {@code weight} more).
+     */
+    public int savings(String a, String b, int weight) {
+        int u = id(a);
+        int v = id(b);
+        int max = pathMax(u, v);
+        return u == v || max == NO_PATH ? 0 : Math.max(0, max - weight);
+    }
+
+    /** {@link #pathMax(int, int)} for every pair {@code (from[i], to[i])}. */
+    public int[] pathMax(int[] from, int[] to) {
+        int[] out = new int[from.length];
+        forEachQuery(from.length, i -> out[i] = pathMax(from[i], to[i]));
+        return out;
+    }
+
+    /** {@link #improves(int, int, int)} for every candidate edge {@code (from[i], to[i], weight[i])}. */
+    public boolean[] improves(int[] from, int[] to, int[] weight) {
+        boolean[] out = new boolean[from.length];
+        forEachQuery(from.length, i -> out[i] = improves(from[i], to[i], weight[i]));
+        return out;
+    }
+
+    private static void forEachQuery(int count, IntConsumer query) {
+        if (count >= PARALLEL_BATCH) {
+            IntStream.range(0, count).parallel().forEach(query);
+        } else {
+            for (int i = 0; i < count; i++) {
+                query.accept(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package main.java.model_classes;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/** JFR view of one {@link MSTStats} run; committed only with {@code -Dmst.stats.jfr=true}. */
+@Name("mst.Run")
+@Label("MST Run")
+@Category("MST")
+class MSTRunEvent extends Event {
+    @Label("Algorithm")
+    String algorithm;
+    @Label("Heap Pushes")
+    long heapPushes;
+    @Label("Heap Pops")
+    long heapPops;
+    @Label("Stale Pops")
+    long stalePops;
+    @Label("Find Calls")
+    long finds;
+    @Label("Union Calls")
+    long unions;
+    @Label("Compression Steps")
+    long compressionSteps;
+    @Label("Comparisons")
+    long comparisons;
+    @Label("Rounds")
+    long rounds;
+    @Label("Build Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long buildTime;
+    @Label("Sort Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long sortTime;
+    @Label("Loop Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long loopTime;
+    @Label("Final Sort Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long finalSortTime;
+}
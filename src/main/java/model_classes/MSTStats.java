@@ -0,0 +1,113 @@
+package main.java.model_classes;
+
+/**
+ * Opt-in counters and phase timers for the MST engines, switched on with {@code -Dmst.stats=true}.
+ * {@link #ENABLED} is a static final constant, so with instrumentation off every
+ * {@code if (MSTStats.ENABLED)} block is folded away by the JIT and the hot loops are the same as
+ * uninstrumented code. With {@code -Dmst.stats.jfr=true} as well, every run is also committed as
+ * an {@code mst.Run} JFR event, so a flight recording carries the per-phase metrics.
+ * <p>
+ * These counters are separate from {@link Graph.MSTResult#operationsCount}, which stays the
+ * always-on summary figure written to the reports.
+ */
+public final class MSTStats {
+    public static final boolean ENABLED = Boolean.getBoolean("mst.stats");
+    static final boolean JFR = ENABLED && Boolean.getBoolean("mst.stats.jfr");
+
+    public enum Phase {
+        BUILD,       // allocating and initializing the working arrays
+        SORT,        // ordering edges by weight
+        LOOP,        // the main selection loop
+        FINAL_SORT   // ordering the chosen edges and building the result list
+    }
+
+    public final String algorithm;
+    public long heapPushes;
+    public long heapPops;
+    public long stalePops;          // popped entries whose endpoints were already both in the tree
+    public long finds;
+    public long unions;
+    public long compressionSteps;   // parent links followed inside find
+    public long comparisons;
+    public long rounds;             // Boruvka passes over the remaining edges
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private long lapStart;
+
+    private MSTStats(String algorithm) {
+        this.algorithm = algorithm;
+        this.lapStart = System.nanoTime();
+    }
+
+    /** Stats for one run, or null when instrumentation is disabled. */
+    public static MSTStats start(String algorithm) {
+        return ENABLED ? new MSTStats(algorithm) : null;
+    }
+
+    /** Charges the time since the previous lap (or since {@link #start}) to the phase. */
+    public void lap(Phase phase) {
+        long now = System.nanoTime();
+        phaseNanos[phase.ordinal()] += now - lapStart;
+        lapStart = now;
+    }
+
+    public long phaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /** Adds the counters and phase times of another run, e.g. one component of a forest. */
+    public void add(MSTStats other) {
+        heapPushes += other.heapPushes;
+        heapPops += other.heapPops;
+        stalePops += other.stalePops;
+        finds += other.finds;
+        unions += other.unions;
+        compressionSteps += other.compressionSteps;
+        comparisons += other.comparisons;
+        rounds += other.rounds;
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] += other.phaseNanos[i];
+        }
+    }
+
+    /** Attaches the stats to the result and exports them to JFR when requested. */
+    void finish(Graph.MSTResult result) {
+        result.stats = this;
+        if (JFR) {
+            MSTRunEvent event = new MSTRunEvent();
+            if (event.shouldCommit()) {
+                event.algorithm = algorithm;
+                event.heapPushes = heapPushes;
+                event.heapPops = heapPops;
+                event.stalePops = stalePops;
+                event.finds = finds;
+                event.unions = unions;
+                event.compressionSteps = compressionSteps;
+                event.comparisons = comparisons;
+                event.rounds = rounds;
+                event.buildTime = phaseNanos(Phase.BUILD);
+                event.sortTime = phaseNanos(Phase.SORT);
+                event.loopTime = phaseNanos(Phase.LOOP);
+                event.finalSortTime = phaseNanos(Phase.FINAL_SORT);
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(algorithm);
+        sb.append(": pushes=").append(heapPushes)
+                .append(" pops=").append(heapPops)
+                .append(" stale=").append(stalePops)
+                .append(" finds=").append(finds)
+                .append(" unions=").append(unions)
+                .append(" compression=").append(compressionSteps)
+                .append(" comparisons=").append(comparisons)
+                .append(" rounds=").append(rounds);
+        for (Phase phase : Phase.values()) {
+            sb.append(' ').append(phase.name().toLowerCase()).append("_ms=")
+                    .append(Math.round(phaseNanos(phase) / 1e4) / 100.0);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,112 @@
+package main.java.model_classes;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dense int ids for node labels. Interning the same label twice returns the same id, and
+ * {@link #label} always returns the first String instance seen, so parsers can drop their own
+ * copies and every structure built from the table shares one String per node.
+ * <p>
+ * Ids live in an open-addressing int table next to the label array rather than in a
+ * {@code HashMap<String, Integer>}, which saves the entry and boxed Integer per label.
+ */
+public final class SymbolTable {
+    private String[] labels;
+    private int[] slots;      // id + 1 of the label hashed to each slot, 0 if empty
+    private int size;
+
+    public SymbolTable() {
+        this(16);
+    }
+
+    public SymbolTable(int expectedSize) {
+        labels = new String[Math.max(4, expectedSize)];
+        slots = new int[tableSize(labels.length)];
+    }
+
+    /** Id of the label, assigning the next free id if it is new. */
+    public int intern(String label) {
+        int slot = find(label);
+        if (slots[slot] != 0) {
+            return slots[slot] - 1;
+        }
+        if (size == labels.length) {
+            labels = Arrays.copyOf(labels, size * 2);
+        }
+        labels[size] = label;
+        slots[slot] = ++size;
+        if (2 * size > slots.length) {
+            rehash();
+        }
+        return size - 1;
+    }
+
+    /** Id of the label, or -1 if it was never interned. */
+    public int id(String label) {
+        return slots[find(label)] - 1;
+    }
+
+    public String label(int id) {
+        if (id >= size) {
+            throw new IndexOutOfBoundsException("No symbol " + id);
+        }
+        return labels[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Read-only view of the labels in id order. */
+    public List<String> labels() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return label(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    public String[] toArray() {
+        return Arrays.copyOf(labels, size);
+    }
+
+    // Slot holding the label, or the empty slot where it would go.
+    private int find(String label) {
+        int mask = slots.length - 1;
+        int slot = mix(label.hashCode()) & mask;
+        while (slots[slot] != 0 && !labels[slots[slot] - 1].equals(label)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        int[] table = new int[slots.length * 2];
+        int mask = table.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(labels[id].hashCode()) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id + 1;
+        }
+        slots = table;
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSize(int capacity) {
+        return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+}
@@ -1,12 +1,39 @@
 package test.java;
 
 
+import main.java.AlgorithmSelector;
+import main.java.BatchExecutor;
+import main.java.MSTServer;
 import main.java.Main;
+import main.java.ResultCache;
+import main.java.StreamingGraphReader;
+import main.java.generator.GeneratedGraph;
+import main.java.generator.GraphGenerator;
+import main.java.model_classes.BinaryGraphFile;
+import main.java.model_classes.CsrGraph;
+import main.java.model_classes.DisjointSet;
+import main.java.model_classes.DynamicMST;
 import main.java.model_classes.Edge;
+import main.java.model_classes.EdgeSort;
+import main.java.model_classes.ExternalKruskal;
 import main.java.model_classes.Graph;
+import main.java.model_classes.MSTAlgorithm;
+import main.java.model_classes.MSTQueryIndex;
+import main.java.model_classes.MSTStats;
+import main.java.model_classes.SymbolTable;
 import org.junit.Test;
 import static org.junit.Assert.*;
 import java.util.*;
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 public class MSTTest {
     private boolean isValidTree(List<Edge> edges, List<String> nodes) {
@@ -105,4 +132,807 @@ public class MSTTest {
         assertEquals(primRes.totalCost, primRes2.totalCost);
         assertEquals(kruskalRes.totalCost, kruskalRes2.totalCost);
     }
+
+    @Test
+    public void testCsrGraphMatchesGraph() {
+        List<String> nodes = Arrays.asList("A", "B", "C", "D", "E");
+        Graph g = new Graph(nodes);
+        g.addEdge("A", "B", 4);
+        g.addEdge("A", "C", 3);
+        g.addEdge("B", "C", 2);
+        g.addEdge("B", "D", 5);
+        g.addEdge("C", "D", 7);
+        g.addEdge("C", "E", 8);
+        g.addEdge("D", "E", 6);
+        CsrGraph csr = g.toCsr();
+        assertEquals(g.getVertexCount(), csr.getVertexCount());
+        assertEquals(g.getEdgeCount(), csr.getEdgeCount());
+        Graph.MSTResult primRes = csr.computePrimMST();
+        Graph.MSTResult kruskalRes = csr.computeKruskalMST();
+        assertEquals(g.computeKruskalMST().totalCost, primRes.totalCost);
+        assertEquals(16, kruskalRes.totalCost);
+        assertTrue(isValidTree(primRes.mstEdges, nodes));
+        assertTrue(isValidTree(kruskalRes.mstEdges, nodes));
+    }
+
+    @Test
+    public void testEagerPrimHeapArities() {
+        List<String> nodes = Arrays.asList("A", "B", "C", "D");
+        Graph g = new Graph(nodes);
+        g.addEdge("A", "B", 1);
+        g.addEdge("B", "C", 2);
+        g.addEdge("C", "D", 3);
+        g.addEdge("A", "D", 4);
+        g.addEdge("A", "C", 5);
+        for (int arity = 2; arity <= 4; arity++) {
+            Graph.MSTResult eager = g.computeEagerPrimMST(arity);
+            assertEquals(6, eager.totalCost);
+            assertTrue(isValidTree(eager.mstEdges, nodes));
+            assertTrue(eager.peakHeapSize <= nodes.size());
+        }
+    }
+
+    @Test
+    public void testEdgeSortNarrowAndWideRanges() {
+        int[] narrow = {5, 3, 5, 1, 3};
+        assertArrayEquals(new int[]{3, 1, 4, 0, 2}, EdgeSort.sortedOrder(narrow, narrow.length));
+        int[] wide = {1000000, -7, 1000000, Integer.MIN_VALUE, 42};
+        assertArrayEquals(new int[]{3, 1, 4, 0, 2}, EdgeSort.sortedOrder(wide, wide.length));
+    }
+
+    @Test
+    public void testFilterKruskalMatchesKruskal() {
+        Random rand = new Random(7);
+        List<String> nodes = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            nodes.add("N" + i);
+        }
+        Graph g = new Graph(nodes);
+        for (int i = 1; i < nodes.size(); i++) {
+            g.addEdge("N" + rand.nextInt(i), "N" + i, 1 + rand.nextInt(20));
+        }
+        for (int i = 0; i < 4000; i++) {
+            g.addEdge("N" + rand.nextInt(400), "N" + rand.nextInt(400), 1 + rand.nextInt(20));
+        }
+        Graph.MSTResult kruskalRes = g.computeKruskalMST();
+        Graph.MSTResult filterRes = g.computeMST(MSTAlgorithm.FILTER_KRUSKAL);
+        assertEquals(kruskalRes.totalCost, filterRes.totalCost);
+        assertTrue(isValidTree(filterRes.mstEdges, nodes));
+    }
+
+    @Test
+    public void testBoruvkaMatchesKruskalAcrossThreadCounts() {
+        Random rand = new Random(11);
+        List<String> nodes = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            nodes.add("N" + i);
+        }
+        Graph g = new Graph(nodes);
+        for (int i = 1; i < nodes.size(); i++) {
+            g.addEdge("N" + rand.nextInt(i), "N" + i, 1 + rand.nextInt(20));
+        }
+        for (int i = 0; i < 20000; i++) {
+            g.addEdge("N" + rand.nextInt(2000), "N" + rand.nextInt(2000), 1 + rand.nextInt(20));
+        }
+        Graph.MSTResult kruskalRes = g.computeKruskalMST();
+        CsrGraph csr = g.toCsr();
+        for (int threads = 1; threads <= 4; threads *= 2) {
+            Graph.MSTResult boruvkaRes = csr.computeBoruvkaMST(threads);
+            assertEquals(kruskalRes.totalCost, boruvkaRes.totalCost);
+            assertTrue(isValidTree(boruvkaRes.mstEdges, nodes));
+        }
+    }
+
+    @Test
+    public void testStreamingReaderParsesGraphsOneAtATime() throws IOException {
+        String json = "{\"graphs\": ["
+                + "{\"id\": 1, \"nodes\": [\"A\", \"B\", \"C\"], \"edges\": ["
+                + "{\"from\": \"A\", \"to\": \"B\", \"weight\": 4}, {\"from\": \"B\", \"to\": \"C\", \"weight\": 2}]},"
+                + "{\"id\": 2, \"nodes\": [\"X\"], \"edges\": []}]}";
+        try (StreamingGraphReader reader = new StreamingGraphReader(new StringReader(json))) {
+            StreamingGraphReader.GraphRecord first = reader.next();
+            assertEquals(1, first.id);
+            CsrGraph g1 = first.builder.build();
+            assertEquals(3, g1.getVertexCount());
+            assertEquals(6, g1.computeKruskalMST().totalCost);
+            StreamingGraphReader.GraphRecord second = reader.next();
+            assertEquals(2, second.id);
+            assertEquals(1, second.builder.build().getVertexCount());
+            assertNull(reader.next());
+            assertTrue(reader.foundGraphs());
+        }
+
+        // Edges may precede the node list, but every label must be declared, as in Graph.addEdge.
+        String edgesFirst = "{\"edges\": [{\"from\": \"A\", \"to\": \"B\", \"weight\": 3}], \"nodes\": [\"A\", \"B\"]}";
+        assertEquals(3, StreamingGraphReader.readOne(new StringReader(edgesFirst)).builder.build().computeKruskalMST().totalCost);
+        for (String undeclared : new String[]{
+                "{\"nodes\": [\"A\"], \"edges\": [{\"from\": \"A\", \"to\": \"Z\", \"weight\": 1}]}",
+                "{\"edges\": [{\"from\": \"A\", \"to\": \"Z\", \"weight\": 1}], \"nodes\": [\"A\"]}"}) {
+            try {
+                StreamingGraphReader.readOne(new StringReader(undeclared));
+                fail("accepted an edge to an undeclared node: " + undeclared);
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("Unknown node"));
+            }
+        }
+    }
+
+    /** Prints the stats of every engine on one graph; run in a child JVM with -Dmst.stats=true. */
+    public static class StatsProbe {
+        public static void main(String[] args) {
+            CsrGraph graph = new GraphGenerator(GraphGenerator.Topology.RANDOM, 2000, 20000, 1000, 3).generate().toBuilder().build();
+            for (MSTAlgorithm algorithm : MSTAlgorithm.values()) {
+                Graph.MSTResult result = algorithm == MSTAlgorithm.BORUVKA
+                        ? graph.computeBoruvkaMST(2) : graph.computeMST(algorithm);
+                System.out.println(result.stats + " final_sort_ns=" + result.stats.phaseNanos(MSTStats.Phase.FINAL_SORT));
+            }
+        }
+    }
+
+    @Test
+    public void testStatsCountOnlyWhenEnabled() throws Exception {
+        // Off in this JVM: no engine allocates or fills stats.
+        assertFalse(MSTStats.ENABLED);
+        CsrGraph graph = new GraphGenerator(GraphGenerator.Topology.RANDOM, 200, 1000, 1000, 3).generate().toBuilder().build();
+        for (MSTAlgorithm algorithm : MSTAlgorithm.values()) {
+            assertNull(algorithm.name(), graph.computeMST(algorithm).stats);
+        }
+
+        // ENABLED is a constant, so the instrumented run needs a JVM of its own.
+        Process child = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Dmst.stats=true", "-cp", System.getProperty("java.class.path"), StatsProbe.class.getName())
+                .redirectErrorStream(true).start();
+        String output = new String(child.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(output, 0, child.waitFor());
+        Map<String, Map<String, Double>> runs = new HashMap<>();
+        for (String line : output.split("\n")) {
+            String[] parts = line.trim().split("[: ]+");
+            Map<String, Double> values = new HashMap<>();
+            for (int i = 1; i < parts.length; i++) {
+                String[] kv = parts[i].split("=");
+                values.put(kv[0], Double.parseDouble(kv[1]));
+            }
+            runs.put(parts[0], values);
+        }
+        assertEquals(output, MSTAlgorithm.values().length, runs.size());
+        assertTrue(output, runs.get("prim").get("pushes") > 0);
+        assertTrue(output, runs.get("eager-prim").get("pushes") > 0);
+        for (String kruskal : Arrays.asList("kruskal", "filter-kruskal")) {
+            assertEquals(output, 1999, runs.get(kruskal).get("unions"), 0);
+            assertTrue(output, runs.get(kruskal).get("finds") > 0);
+            assertTrue(output, runs.get(kruskal).get("final_sort_ns") > 0);
+        }
+        Map<String, Double> boruvka = runs.get("boruvka");
+        assertEquals(output, 1999, boruvka.get("unions"), 0);
+        assertTrue(output, boruvka.get("rounds") >= 1);
+        assertTrue(output, boruvka.get("finds") >= 2 * 20000);
+        assertTrue(output, boruvka.get("final_sort_ns") > 0);
+    }
+
+    @Test
+    public void testBatchExecutorKeepsOrderAndBoundsInFlight() throws IOException {
+        int maxInFlight = 3;
+        List<Integer> emitted = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger maxOutstanding = new AtomicInteger();
+        try (BatchExecutor<Integer> batch = new BatchExecutor<>(4, maxInFlight, emitted::add)) {
+            for (int i = 0; i < 24; i++) {
+                int task = i;
+                batch.submit(() -> {
+                    maxOutstanding.accumulateAndGet(started.incrementAndGet() - emitted.size(), Math::max);
+                    // Every third task is slow, so the ones after it finish first.
+                    Thread.sleep(task % 3 == 0 ? 40 : 1);
+                    return task;
+                });
+                // Once the window is full, submit returns only after the oldest result was emitted.
+                assertTrue("in flight after task " + i, i + 1 - emitted.size() <= maxInFlight);
+            }
+            batch.finish();
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, emitted);
+        assertEquals(maxInFlight, maxOutstanding.get());
+    }
+
+    @Test
+    public void testBinaryGraphFileRoundTrip() throws IOException {
+        Random rand = new Random(5);
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        for (int i = 0; i < 5000; i++) {
+            builder.addNode("N" + i);
+        }
+        for (int i = 1; i < 5000; i++) {
+            builder.addEdge(rand.nextInt(i), i, 1 + rand.nextInt(20));
+        }
+        for (int i = 0; i < 20000; i++) {
+            builder.addEdge(rand.nextInt(5000), rand.nextInt(5000), 1 + rand.nextInt(20));
+        }
+        CsrGraph original = builder.build();
+        Path file = Files.createTempFile("mst", BinaryGraphFile.EXTENSION);
+        try {
+            try (BinaryGraphFile.Writer writer = new BinaryGraphFile.Writer(file)) {
+                writer.write(42, original);
+                writer.write(43, new CsrGraph.Builder().build());
+            }
+            try (BinaryGraphFile.Reader reader = new BinaryGraphFile.Reader(file)) {
+                assertEquals(2, reader.getGraphCount());
+                BinaryGraphFile.Entry first = reader.next();
+                assertEquals(42, first.id);
+                assertEquals(original.getVertexCount(), first.graph.getVertexCount());
+                assertEquals(original.getEdgeCount(), first.graph.getEdgeCount());
+                assertEquals("N4999", first.graph.getLabel(4999));
+                assertEquals(original.computeKruskalMST().totalCost, first.graph.computePrimMST().totalCost);
+                assertEquals(0, reader.next().graph.getVertexCount());
+                assertNull(reader.next());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testExternalKruskalSpillsRunsAndMatchesKruskal() throws IOException {
+        Random rand = new Random(13);
+        int[][] edges = new int[2999 + 30000][];
+        for (int i = 1; i < 3000; i++) {
+            edges[i - 1] = new int[]{rand.nextInt(i), i, 1 + rand.nextInt(1000)};
+        }
+        for (int i = 0; i < 30000; i++) {
+            edges[2999 + i] = new int[]{rand.nextInt(3000), rand.nextInt(3000), 1 + rand.nextInt(1000)};
+        }
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        for (int i = 0; i < 3000; i++) {
+            builder.addNode("N" + i);
+        }
+        for (int[] e : edges) {
+            builder.addEdge(e[0], e[1], e[2]);
+        }
+        CsrGraph graph = builder.build();
+        Path dir = Files.createTempDirectory("mst-external");
+        Path file = dir.resolve("graph" + BinaryGraphFile.EXTENSION);
+        try {
+            try (BinaryGraphFile.Writer writer = new BinaryGraphFile.Writer(file)) {
+                writer.write(1, graph);
+                // Streamed without a CsrGraph; a tiny budget fills the adjacency in many passes.
+                try (BinaryGraphFile.Writer.StreamedGraph streamed = writer.beginGraph(1)) {
+                    for (int i = 0; i < 3000; i++) {
+                        streamed.addNode("N" + i);
+                    }
+                    for (int[] e : edges) {
+                        streamed.addEdge(e[0], e[1], e[2]);
+                    }
+                    streamed.commit(2);
+                }
+            }
+            try (BinaryGraphFile.Reader reader = new BinaryGraphFile.Reader(file)) {
+                CsrGraph written = reader.next().graph;
+                CsrGraph streamed = reader.next().graph;
+                assertEquals(written.contentHash(), streamed.contentHash());
+                Graph.MSTResult expected = written.computePrimMST();
+                Graph.MSTResult actual = streamed.computePrimMST();
+                assertEquals(expected.mstEdges, actual.mstEdges);
+                assertEquals(expected.operationsCount, actual.operationsCount);
+            }
+            // A tiny budget forces dozens of sorted runs on disk.
+            ExternalKruskal external = new ExternalKruskal(dir, 1);
+            try (BinaryGraphFile.Reader reader = new BinaryGraphFile.Reader(file)) {
+                BinaryGraphFile.StreamedEntry entry;
+                while ((entry = reader.nextStreamed()) != null) {
+                    assertEquals(graph.getEdgeCount(), entry.edgeCount);
+                    Graph.MSTResult result = external.compute(entry.labels, entry.edges);
+                    assertEquals(graph.computeKruskalMST().totalCost, result.totalCost);
+                    assertTrue(isValidTree(result.mstEdges, Arrays.asList(entry.labels)));
+                }
+            }
+            try (Stream<Path> files = Files.list(dir)) {
+                assertEquals(1, files.count());
+            }
+        } finally {
+            Files.delete(file);
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testDisjointSetStrategiesAgreeWithRelabeling() {
+        int n = 2000;
+        for (DisjointSet.Compression compression : DisjointSet.Compression.values()) {
+            for (DisjointSet.UnionRule rule : DisjointSet.UnionRule.values()) {
+                String strategy = compression + "/" + rule;
+                DisjointSet sets = new DisjointSet(n, compression, rule);
+                int[] label = new int[n];      // reference: every element carries its set's label
+                for (int i = 0; i < n; i++) {
+                    label[i] = i;
+                }
+                int expectedSets = n;
+                Random random = new Random(compression.ordinal() * 7 + rule.ordinal());
+                for (int step = 0; step < 3000; step++) {
+                    int a = random.nextInt(n);
+                    int b = random.nextInt(n);
+                    boolean joined = label[a] != label[b];
+                    assertEquals(strategy, joined, sets.union(a, b));
+                    if (joined) {
+                        int old = label[b];
+                        for (int i = 0; i < n; i++) {
+                            if (label[i] == old) {
+                                label[i] = label[a];
+                            }
+                        }
+                        expectedSets--;
+                    }
+                }
+                assertEquals(strategy, expectedSets, sets.setCount());
+                int[] members = new int[n];
+                for (int i = 0; i < n; i++) {
+                    members[label[i]]++;
+                }
+                for (int i = 0; i < n; i++) {
+                    int root = sets.find(i);
+                    assertEquals(strategy, root, sets.find(root));
+                    assertEquals(strategy, label[i], label[root]);
+                    int other = random.nextInt(n);
+                    assertEquals(strategy, label[i] == label[other], sets.connected(i, other));
+                    if (rule == DisjointSet.UnionRule.SIZE) {
+                        assertEquals(strategy, members[label[i]], sets.setSize(i));
+                    }
+                }
+
+                // Same size, so the arrays are reused rather than reallocated.
+                sets.reset(n);
+                assertEquals(n, sets.size());
+                assertEquals(n, sets.setCount());
+                for (int i = 0; i < n; i++) {
+                    assertEquals(strategy, i, sets.find(i));
+                    if (rule == DisjointSet.UnionRule.SIZE) {
+                        assertEquals(strategy, 1, sets.setSize(i));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSpanningForestReportsEveryComponent() {
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        for (String label : new String[]{"A", "B", "C", "D", "E", "F", "G"}) {
+            builder.addNode(label);
+        }
+        builder.addEdge("A", "B", 4);
+        builder.addEdge("B", "C", 1);
+        builder.addEdge("A", "C", 2);
+        builder.addEdge("E", "F", 7);
+        builder.addEdge("F", "G", 3);
+        builder.addEdge("E", "G", 5);
+        CsrGraph graph = builder.build();   // components {A,B,C}, {D}, {E,F,G}
+
+        for (MSTAlgorithm algorithm : MSTAlgorithm.values()) {
+            for (int threads : new int[]{1, 4}) {
+                Graph.MSTResult forest = graph.computeSpanningForest(algorithm, threads);
+                assertEquals(algorithm.name(), 11, forest.totalCost);
+                assertEquals(4, forest.mstEdges.size());
+                assertEquals(3, forest.components.size());
+                assertEquals(3, forest.components.get(0).vertices);
+                assertEquals(3, forest.components.get(0).totalCost);
+                assertEquals(1, forest.components.get(1).vertices);
+                assertTrue(forest.components.get(1).mstEdges.isEmpty());
+                assertEquals(8, forest.components.get(2).totalCost);
+            }
+        }
+        // Plain Prim only spans the component of the first vertex.
+        assertEquals(3, graph.computePrimMST().totalCost);
+
+        // Large components take the parallel path and still match Kruskal.
+        Random rand = new Random(21);
+        CsrGraph.Builder big = new CsrGraph.Builder();
+        for (int i = 0; i < 30000; i++) {
+            big.addNode("N" + i);
+        }
+        for (int i = 0; i < 60000; i++) {
+            int part = rand.nextInt(3) * 10000;
+            big.addEdge(part + rand.nextInt(10000), part + rand.nextInt(10000), 1 + rand.nextInt(100));
+        }
+        CsrGraph fragmented = big.build();
+        Graph.MSTResult forest = fragmented.computeSpanningForest(MSTAlgorithm.PRIM, 4);
+        assertEquals(fragmented.computeKruskalMST().totalCost, forest.totalCost);
+        assertEquals(fragmented.computeKruskalMST().mstEdges.size(), forest.mstEdges.size());
+    }
+
+    @Test
+    public void testResultCacheKeysOnContentAndPersists() throws IOException, InterruptedException {
+        CsrGraph.Builder a = new CsrGraph.Builder();
+        for (String label : new String[]{"A", "B", "C"}) {
+            a.addNode(label);
+        }
+        a.addEdge("A", "B", 1);
+        a.addEdge("B", "C", 2);
+        CsrGraph.Builder b = new CsrGraph.Builder();   // same graph, other node order, edge order and orientation
+        for (String label : new String[]{"C", "A", "B"}) {
+            b.addNode(label);
+        }
+        b.addEdge("C", "B", 2);
+        b.addEdge("B", "A", 1);
+        CsrGraph.Builder c = new CsrGraph.Builder();
+        for (String label : new String[]{"A", "B", "C"}) {
+            c.addNode(label);
+        }
+        c.addEdge("A", "B", 1);
+        c.addEdge("B", "C", 3);
+        assertEquals(a.contentHash(), b.contentHash());
+        assertEquals(a.contentHash(), a.build().contentHash());
+        assertNotEquals(a.contentHash(), c.contentHash());
+
+        CsrGraph graph = a.build();
+        ResultCache.Entry entry = new ResultCache.Entry(3, 2,
+                graph.computeSpanningForest(MSTAlgorithm.PRIM, 1), graph.computeKruskalMST());
+        Path dir = Files.createTempDirectory("mst-cache");
+        try {
+            ResultCache cache = new ResultCache(1 << 20, dir);
+            assertNull(cache.get(a.contentHash()));
+            cache.put(a.contentHash(), entry);
+            assertSame(entry, cache.get(b.contentHash()));
+
+            // A fresh cache over the same directory serves the entry from disk.
+            ResultCache restarted = new ResultCache(1 << 20, dir);
+            ResultCache.Entry loaded = restarted.get(a.contentHash());
+            assertEquals(3, loaded.prim.totalCost);
+            assertEquals(entry.kruskal.mstEdges, loaded.kruskal.mstEdges);
+            assertEquals(1, loaded.prim.components.size());
+            assertEquals(1, restarted.getDiskHits());
+            // Read back, the forest's component lists no longer share Edge objects with the tree.
+            assertTrue(loaded.bytes > entry.bytes);
+
+            // The disk tier deletes the least recently used files beyond its budget.
+            long fileSize = Files.size(dir.resolve(a.contentHash() + ".mstr"));
+            ResultCache bounded = new ResultCache(0, dir, 3 * fileSize + fileSize / 2);
+            for (int i = 1; i <= 5; i++) {
+                Thread.sleep(20);
+                bounded.put("k" + i, entry);
+            }
+            assertTrue(bounded.getDiskBytes() <= 3 * fileSize + fileSize / 2);
+            assertNull(bounded.get(a.contentHash()));
+            assertNull(bounded.get("k2"));
+            assertNotNull(bounded.get("k5"));
+
+            // The memory tier evicts the least recently used entry once the budget is exceeded.
+            ResultCache small = new ResultCache(2 * entry.bytes, null);
+            small.put("k1", entry);
+            small.put("k2", entry);
+            small.get("k1");
+            small.put("k3", entry);
+            assertNotNull(small.get("k1"));
+            assertNull(small.get("k2"));
+        } finally {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path f : (Iterable<Path>) files::iterator) {
+                    Files.delete(f);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testGeneratorIsReproducibleAndExact() {
+        for (GraphGenerator.Topology topology : GraphGenerator.Topology.values()) {
+            GeneratedGraph serial = new GraphGenerator(topology, 400, 2000, 20, 99).generate(1);
+            GeneratedGraph parallel = new GraphGenerator(topology, 400, 2000, 20, 99).generate(4);
+            assertEquals(topology.name(), serial.getEdgeCount(), parallel.getEdgeCount());
+            Set<Long> pairs = new HashSet<>();
+            for (int e = 0; e < serial.getEdgeCount(); e++) {
+                assertEquals(serial.getFrom(e), parallel.getFrom(e));
+                assertEquals(serial.getTo(e), parallel.getTo(e));
+                assertEquals(serial.getWeight(e), parallel.getWeight(e));
+                int u = Math.min(serial.getFrom(e), serial.getTo(e));
+                int v = Math.max(serial.getFrom(e), serial.getTo(e));
+                assertTrue(u != v && v < serial.vertices);
+                assertTrue(topology.name(), pairs.add((long) u * serial.vertices + v));
+            }
+        }
+        // RANDOM hits the requested count exactly, up to a complete graph, and is connected.
+        for (int edges : new int[]{9, 30, 45}) {
+            GeneratedGraph random = new GraphGenerator(GraphGenerator.Topology.RANDOM, 10, edges, 20, 5).generate(3);
+            assertEquals(edges, random.getEdgeCount());
+            assertEquals(9, random.toBuilder().build().computeKruskalMST().mstEdges.size());
+        }
+        assertEquals(2 * 20 * 19, new GraphGenerator(GraphGenerator.Topology.GRID, 400, 0, 20, 1).generate().getEdgeCount());
+        assertEquals(30 * 29 / 2, new GraphGenerator(GraphGenerator.Topology.COMPLETE, 30, 0, 20, 1).generate().getEdgeCount());
+    }
+
+    @Test
+    public void testDynamicMSTInsertionsAndDecreases() {
+        List<String> nodes = Arrays.asList("A", "B", "C", "D");
+        Graph g = new Graph(nodes);
+        g.addEdge("A", "B", 5);
+        g.addEdge("B", "C", 4);
+        g.addEdge("C", "D", 3);
+        DynamicMST mst = DynamicMST.fromGraph(g);
+        assertEquals(12, mst.getTotalCost());
+        int ad = mst.addEdge("A", "D", 1);
+        assertEquals(8, mst.currentResult().totalCost);
+        assertTrue(mst.isTreeEdge(ad));
+        int ac = mst.addEdge("A", "C", 10);
+        assertFalse(mst.isTreeEdge(ac));
+        mst.decreaseWeight(ac, 2);
+        Graph.MSTResult res = mst.currentResult();
+        assertEquals(7, res.totalCost);
+        assertTrue(isValidTree(res.mstEdges, nodes));
+    }
+
+    @Test
+    public void testRoadClosureFindsReplacementEdge() {
+        List<String> nodes = Arrays.asList("A", "B", "C", "D");
+        Graph g = new Graph(nodes);
+        g.addEdge("A", "B", 1);
+        g.addEdge("B", "C", 2);
+        g.addEdge("C", "D", 3);
+        g.addEdge("A", "D", 9);
+        g.addEdge("A", "C", 5);
+        assertEquals(6, g.currentMST().totalCost);
+        assertTrue(g.removeEdge("C", "B"));
+        Graph.MSTResult closed = g.currentMST();
+        assertEquals(9, closed.totalCost);
+        assertTrue(isValidTree(closed.mstEdges, nodes));
+        assertTrue(g.updateWeight("A", "C", 20));
+        assertEquals(13, g.currentMST().totalCost);
+        assertEquals(g.computeKruskalMST().totalCost, g.currentMST().totalCost);
+        assertEquals(13, g.currentMSTCost());
+        assertFalse(g.removeEdge("B", "D"));
+    }
+
+    // Heaviest edge on the tree path from a to b by depth-first walk, or NO_PATH.
+    private int walkPathMax(List<Edge> tree, String a, String b, String parent, int max) {
+        if (a.equals(b)) {
+            return max;
+        }
+        for (Edge e : tree) {
+            String next = e.from.equals(a) ? e.to : e.to.equals(a) ? e.from : null;
+            if (next != null && !next.equals(parent)) {
+                int found = walkPathMax(tree, next, b, a, Math.max(max, e.weight));
+                if (found != MSTQueryIndex.NO_PATH) {
+                    return found;
+                }
+            }
+        }
+        return MSTQueryIndex.NO_PATH;
+    }
+
+    @Test
+    public void testQueryIndexMatchesPathWalk() {
+        GeneratedGraph generated = new GraphGenerator(GraphGenerator.Topology.RANDOM, 60, 200, 20, 11).generate();
+        Graph.MSTResult mst = generated.toBuilder().build().computeKruskalMST();
+        MSTQueryIndex index = new MSTQueryIndex(mst);
+        assertEquals(60, index.getVertexCount());
+        Random random = new Random(3);
+        for (int i = 0; i < 300; i++) {
+            String a = GeneratedGraph.label(random.nextInt(60));
+            String b = GeneratedGraph.label(random.nextInt(60));
+            int expected = a.equals(b) ? MSTQueryIndex.EMPTY_PATH : walkPathMax(mst.mstEdges, a, b, null, 0);
+            assertEquals(expected, index.pathMax(a, b));
+        }
+        // Cycle property: no edge of the original graph can improve its own MST.
+        for (int e = 0; e < generated.getEdgeCount(); e++) {
+            assertFalse(index.improves(GeneratedGraph.label(generated.getFrom(e)),
+                    GeneratedGraph.label(generated.getTo(e)), generated.getWeight(e)));
+        }
+
+        // Forest: A-B-C and D-E, batch queries by id.
+        MSTQueryIndex forest = new MSTQueryIndex(Arrays.asList(
+                new Edge("A", "B", 4), new Edge("B", "C", 7), new Edge("D", "E", 2)), Collections.singletonList("F"));
+        assertEquals(7, forest.pathMax("A", "C"));
+        assertEquals(MSTQueryIndex.NO_PATH, forest.pathMax("A", "E"));
+        assertTrue(forest.improves("A", "C", 5));
+        assertFalse(forest.improves("A", "C", 7));
+        assertTrue(forest.improves("C", "F", 100));
+        assertEquals(2, forest.savings("A", "C", 5));
+        assertEquals(MSTQueryIndex.EMPTY_PATH, forest.pathMax("A", "A"));
+        assertEquals(0, forest.savings("A", "A", 5));
+        assertEquals(0, forest.savings("A", "E", 5));
+        int[] from = {forest.id("A"), forest.id("D"), forest.id("B")};
+        int[] to = {forest.id("B"), forest.id("E"), forest.id("F")};
+        assertArrayEquals(new int[]{4, 2, MSTQueryIndex.NO_PATH}, forest.pathMax(from, to));
+        assertArrayEquals(new boolean[]{true, false, true}, forest.improves(from, to, new int[]{3, 2, 9}));
+    }
+
+    @Test
+    public void testSymbolTableInternsLabels() {
+        SymbolTable symbols = new SymbolTable(2);
+        String first = new String("N1");
+        assertEquals(0, symbols.intern(first));
+        for (int i = 2; i <= 1000; i++) {
+            assertEquals(i - 1, symbols.intern("N" + i));
+        }
+        assertEquals(0, symbols.intern(new String("N1")));
+        assertSame(first, symbols.label(symbols.id("N1")));
+        assertEquals(-1, symbols.id("missing"));
+        assertEquals(1000, symbols.size());
+        assertEquals("N1000", symbols.labels().get(999));
+
+        // Graph over the compact store agrees with the CSR engines, also after edits.
+        GeneratedGraph generated = new GraphGenerator(GraphGenerator.Topology.RANDOM, 300, 1200, 20, 9).generate();
+        Main.GraphInput input = generated.toGraphInput(1);
+        Graph g = new Graph(input.nodes, input.edges);
+        assertEquals(1200, g.getEdgeCount());
+        int expected = Main.toCsr(input).computeKruskalMST().totalCost;
+        assertEquals(expected, g.computePrimMST().totalCost);
+        assertEquals(expected, g.computeKruskalMST().totalCost);
+        Main.EdgeInput e = input.edges.get(0);
+        assertTrue(g.updateWeight(e.to, e.from, 1));
+        assertTrue(g.removeEdge(input.edges.get(1).from, input.edges.get(1).to));
+        assertEquals(1199, g.getEdgeCount());
+        assertEquals(g.toCsr().computeKruskalMST().totalCost, g.computePrimMST().totalCost);
+        assertTrue(isValidTree(g.computeKruskalMST().mstEdges, input.nodes));
+    }
+
+    @Test
+    public void testGraphRemovesAndReweightsEdges() {
+        // Random closures and reweights on a generated graph (no parallel edges), against a plain edge list.
+        GeneratedGraph generated = new GraphGenerator(GraphGenerator.Topology.RANDOM, 400, 3000, 50, 5).generate();
+        Main.GraphInput input = generated.toGraphInput(1);
+        Graph g = new Graph(input.nodes, input.edges);
+        List<Main.EdgeInput> expected = new ArrayList<>(input.edges);
+        Random random = new Random(17);
+        for (int i = 0; i < 2500; i++) {
+            int k = random.nextInt(expected.size());
+            Main.EdgeInput e = expected.get(k);
+            if (random.nextBoolean()) {
+                assertTrue(g.removeEdge(e.to, e.from));
+                expected.set(k, expected.get(expected.size() - 1));
+                expected.remove(expected.size() - 1);
+            } else {
+                int weight = 1 + random.nextInt(50);
+                assertTrue(g.updateWeight(e.from, e.to, weight));
+                expected.set(k, new Main.EdgeInput(e.from, e.to, weight));
+            }
+            assertEquals(expected.size(), g.getEdgeCount());
+        }
+        Main.EdgeInput gone = input.edges.get(0);
+        while (g.removeEdge(gone.from, gone.to)) { }
+        assertFalse(g.updateWeight(gone.to, gone.from, 1));
+        g.addEdge(gone.from, gone.to, 7);
+        assertTrue(g.updateWeight(gone.to, gone.from, 3));
+
+        Main.GraphInput remaining = new Main.GraphInput();
+        remaining.nodes = input.nodes;
+        remaining.edges = expected;
+        expected.removeIf(e -> (e.from.equals(gone.from) && e.to.equals(gone.to)) || (e.from.equals(gone.to) && e.to.equals(gone.from)));
+        expected.add(new Main.EdgeInput(gone.from, gone.to, 3));
+        int cost = Main.toCsr(remaining).computeSpanningForest(MSTAlgorithm.KRUSKAL).totalCost;
+        assertEquals(cost, g.computeSpanningForest(MSTAlgorithm.KRUSKAL).totalCost);
+        assertEquals(cost, g.computeSpanningForest(MSTAlgorithm.PRIM).totalCost);
+
+        // Parallel edges: each removal takes one of them until none is left.
+        Graph multi = new Graph(Arrays.asList("A", "B"));
+        multi.addEdge("A", "B", 5);
+        multi.addEdge("B", "A", 2);
+        multi.addEdge("A", "B", 9);
+        assertTrue(multi.removeEdge("A", "B"));
+        assertTrue(multi.removeEdge("B", "A"));
+        assertEquals(1, multi.getEdgeCount());
+        assertTrue(multi.removeEdge("A", "B"));
+        assertFalse(multi.removeEdge("A", "B"));
+    }
+
+    private static String httpBody(HttpURLConnection connection) throws IOException {
+        InputStream in = connection.getResponseCode() < 400 ? connection.getInputStream() : connection.getErrorStream();
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            StringBuilder body = new StringBuilder();
+            char[] buffer = new char[4096];
+            for (int n; (n = reader.read(buffer)) > 0; ) {
+                body.append(buffer, 0, n);
+            }
+            return body.toString();
+        }
+    }
+
+    private static HttpURLConnection post(int port, String path, String json) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return connection;
+    }
+
+    @Test
+    public void testServerAnswersMSTAndMetrics() throws IOException {
+        try (MSTServer server = new MSTServer(0, 2, 4, 5000)) {
+            server.start();
+            int port = server.getPort();
+            String graph = "{\"id\": 5, \"nodes\": [\"A\", \"B\", \"C\", \"D\"], \"edges\": ["
+                    + "{\"from\": \"A\", \"to\": \"B\", \"weight\": 4}, {\"from\": \"B\", \"to\": \"C\", \"weight\": 1},"
+                    + "{\"from\": \"A\", \"to\": \"C\", \"weight\": 2}]}";
+            HttpURLConnection ok = post(port, "/mst?algorithm=prim", graph);
+            assertEquals(200, ok.getResponseCode());
+            String body = httpBody(ok);
+            assertTrue(body, body.contains("\"prim\""));
+            assertTrue(body, body.contains("\"total_cost\": 3"));
+            assertTrue(body, body.contains("\"components\""));   // D is isolated
+
+            HttpURLConnection bad = post(port, "/mst", "{\"nodes\": [");
+            assertEquals(400, bad.getResponseCode());
+            assertEquals(400, post(port, "/mst?algorithm=dijkstra", graph).getResponseCode());
+
+            HttpURLConnection metrics = (HttpURLConnection) new URL("http://localhost:" + port + "/metrics").openConnection();
+            String text = httpBody(metrics);
+            assertTrue(text, text.contains("mst_request_duration_seconds_count{algorithm=\"prim\"} 1"));
+            assertTrue(text, text.contains("mst_requests_invalid_total 1"));
+            assertTrue(text, text.contains("mst_requests_rejected_total 0"));
+        }
+    }
+
+    @Test
+    public void testServerRejectsOversizedBodies() throws IOException {
+        StringBuilder graph = new StringBuilder("{\"id\": 1, \"nodes\": [\"A\", \"B\"], \"edges\": [");
+        for (int i = 0; i < 100; i++) {
+            graph.append(i == 0 ? "" : ",").append("{\"from\": \"A\", \"to\": \"B\", \"weight\": ").append(i + 1).append('}');
+        }
+        String body = graph.append("]}").toString();
+        try (MSTServer server = new MSTServer(0, 1, 1, 5000, 1024, AlgorithmSelector.DEFAULT)) {
+            server.start();
+            int port = server.getPort();
+            assertEquals(413, post(port, "/mst", body).getResponseCode());   // by Content-Length
+
+            HttpURLConnection chunked = (HttpURLConnection) new URL("http://localhost:" + port + "/mst").openConnection();
+            chunked.setRequestMethod("POST");
+            chunked.setDoOutput(true);
+            chunked.setChunkedStreamingMode(256);
+            try (OutputStream out = chunked.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+            assertEquals(413, chunked.getResponseCode());   // by the bytes streamed so far
+
+            // HttpURLConnection sets Content-Length itself, so the malformed header goes over a raw socket;
+            // it must get a clean 400 and leave the server serving.
+            try (Socket socket = new Socket("localhost", port)) {
+                socket.getOutputStream().write(("POST /mst HTTP/1.1\r\nHost: localhost\r\nContent-Length: abc\r\n"
+                        + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                String status = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII)).readLine();
+                assertTrue(status, status.startsWith("HTTP/1.1 400"));
+            }
+            assertEquals(200, post(port, "/mst", body.substring(0, body.indexOf(",{", 200)) + "]}").getResponseCode());
+
+            String text = httpBody((HttpURLConnection) new URL("http://localhost:" + port + "/metrics").openConnection());
+            assertTrue(text, text.contains("mst_requests_too_large_total 2"));
+        }
+    }
+
+    @Test
+    public void testAlgorithmSelectorRulesAndProfile() throws IOException {
+        AlgorithmSelector selector = new AlgorithmSelector(100_000, AlgorithmSelector.NEVER, 16, 8);
+        CsrGraph sparseNarrow = new GraphGenerator(GraphGenerator.Topology.RANDOM, 1000, 3000, 20, 1).generate().toBuilder().build();
+        CsrGraph denseNarrow = new GraphGenerator(GraphGenerator.Topology.RANDOM, 100, 4000, 20, 1).generate().toBuilder().build();
+        CsrGraph midWide = new GraphGenerator(GraphGenerator.Topology.RANDOM, 1000, 5000, 1_000_000, 1).generate().toBuilder().build();
+        CsrGraph denseWide = new GraphGenerator(GraphGenerator.Topology.RANDOM, 100, 4000, 1_000_000, 1).generate().toBuilder().build();
+        assertEquals(MSTAlgorithm.KRUSKAL, selector.select(sparseNarrow, 1));
+        assertEquals(MSTAlgorithm.KRUSKAL, selector.select(denseNarrow, 1));     // counting sort keeps Kruskal ahead
+        assertEquals(MSTAlgorithm.FILTER_KRUSKAL, selector.select(midWide, 1));
+        assertEquals(MSTAlgorithm.EAGER_PRIM, selector.select(denseWide, 1));
+        assertEquals(MSTAlgorithm.BORUVKA, new AlgorithmSelector(1000, 16, 16, 8).select(midWide, 4));
+        assertEquals(MSTAlgorithm.FILTER_KRUSKAL, new AlgorithmSelector(1000, 16, 16, 8).select(midWide, 1));
+
+        for (CsrGraph graph : Arrays.asList(sparseNarrow, denseNarrow, midWide, denseWide)) {
+            Graph.MSTResult auto = selector.compute(graph, 1);
+            assertEquals(selector.select(graph, 1), auto.algorithm);
+            assertEquals(graph.computeKruskalMST().totalCost, auto.totalCost);
+        }
+
+        Path profile = Files.createTempFile("mst-selection", ".properties");
+        try {
+            selector.save(profile);
+            AlgorithmSelector loaded = AlgorithmSelector.load(profile);
+            assertEquals(selector.toString(), loaded.toString());
+            assertEquals(AlgorithmSelector.NEVER, loaded.denseDegreeNarrow);
+        } finally {
+            Files.deleteIfExists(profile);
+        }
+
+        // without -Dmst.auto.calibrate the committed profile is used as is
+        assertSame(AlgorithmSelector.DEFAULT, AlgorithmSelector.fromSystemProperties(4));
+        assertEquals(16, AlgorithmSelector.DEFAULT.denseDegreeWide);
+        assertTrue(AlgorithmSelector.DEFAULT.parallelMinEdges < AlgorithmSelector.NEVER);
+    }
 }